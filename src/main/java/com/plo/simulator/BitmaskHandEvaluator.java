@@ -0,0 +1,131 @@
+package com.plo.simulator;
+
+import java.util.Arrays;
+
+/**
+ * Table-free 5-card evaluator for memory-constrained deployments.
+ *
+ * Works directly on the four 13-bit suit masks of a CardSet: flushes, straights and rank
+ * multiplicities fall out of a few AND/OR operations, and the hand is reduced to a strength key
+ * (hand type, then ranks high to low). The only table is the sorted list of the 7,462 distinct
+ * strength keys (about 30 KB), used to turn a key into the same rank number as
+ * {@link PokerHandCache}, so both backends order and number hands identically.
+ */
+public class BitmaskHandEvaluator implements HandEvaluator {
+
+    private static final int ROYAL_STRAIGHT = 0x1F00; // T-J-Q-K-A
+    private static final int WHEEL_STRAIGHT = 0x100F; // A-2-3-4-5
+
+    // Hand type values, matching PokerHandGenerator.getHandTypeValue
+    private static final int HIGH_CARD = 0;
+    private static final int ONE_PAIR = 1;
+    private static final int TWO_PAIR = 2;
+    private static final int THREE_OF_A_KIND = 3;
+    private static final int STRAIGHT = 4;
+    private static final int FLUSH = 5;
+    private static final int FULL_HOUSE = 6;
+    private static final int FOUR_OF_A_KIND = 7;
+    private static final int STRAIGHT_FLUSH = 8;
+    private static final int ROYAL_FLUSH = 9;
+
+    // Every distinct strength key in ascending order; rank = distinct count - index
+    private final int[] sortedStrengths;
+
+    public BitmaskHandEvaluator() {
+        int[] strengths = new int[8192];
+        int count = collectStrengths(strengths, 0, new int[5], 0, 0);
+        // Suited hands of five distinct ranks: flushes and straight flushes
+        for (int rankMask = 0; rankMask < 1 << Card.NUM_RANKS; rankMask++) {
+            if (Integer.bitCount(rankMask) == 5) {
+                strengths[count++] = getHandStrength((long) rankMask);
+            }
+        }
+        this.sortedStrengths = Arrays.stream(strengths, 0, count).distinct().sorted().toArray();
+    }
+
+    /**
+     * Collect strengths of every off-suit multiset of five ranks
+     */
+    private int collectStrengths(int[] strengths, int count, int[] ranks, int size, int minRank) {
+        if (size == 5) {
+            long hand = CardSet.EMPTY;
+            for (int i = 0; i < 5; i++) {
+                hand = CardSet.add(hand, Card.of(ranks[i], i % Card.NUM_SUITS));
+            }
+            strengths[count] = getHandStrength(hand);
+            return count + 1;
+        }
+        for (int rank = minRank; rank < Card.NUM_RANKS; rank++) {
+            if (size < 4 || ranks[size - 4] != rank) {
+                ranks[size] = rank;
+                count = collectStrengths(strengths, count, ranks, size + 1, rank);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int getHandRank(long hand) {
+        if (Long.bitCount(hand) != 5) {
+            throw new IllegalArgumentException("Must have exactly 5 distinct cards for hand evaluation");
+        }
+        return sortedStrengths.length - Arrays.binarySearch(sortedStrengths, getHandStrength(hand));
+    }
+
+    /**
+     * Strength key of a 5-card hand (higher is stronger): hand type value in the top bits,
+     * followed by the five rank indexes sorted high to low, one nibble each
+     */
+    int getHandStrength(long hand) {
+        int c = CardSet.suitRanks(hand, 0);
+        int d = CardSet.suitRanks(hand, 1);
+        int h = CardSet.suitRanks(hand, 2);
+        int s = CardSet.suitRanks(hand, 3);
+
+        int ranks = c | d | h | s;
+        int fours = c & d & h & s;
+        int threesOrMore = (c & d & h) | (c & d & s) | (c & h & s) | (d & h & s);
+        int pairsOrMore = (c & d) | (c & h) | (c & s) | (d & h) | (d & s) | (h & s);
+        int threes = threesOrMore & ~fours;
+        int pairs = pairsOrMore & ~threesOrMore;
+
+        boolean distinctRanks = Integer.bitCount(ranks) == 5;
+        boolean flush = distinctRanks && (ranks == c || ranks == d || ranks == h || ranks == s);
+        boolean straight = distinctRanks
+                && ((ranks >>> Integer.numberOfTrailingZeros(ranks)) == 0x1F || ranks == WHEEL_STRAIGHT);
+
+        int type;
+        if (straight && flush) {
+            type = ranks == ROYAL_STRAIGHT ? ROYAL_FLUSH : STRAIGHT_FLUSH;
+        } else if (fours != 0) {
+            type = FOUR_OF_A_KIND;
+        } else if (threes != 0 && pairs != 0) {
+            type = FULL_HOUSE;
+        } else if (flush) {
+            type = FLUSH;
+        } else if (straight) {
+            type = STRAIGHT;
+        } else if (threes != 0) {
+            type = THREE_OF_A_KIND;
+        } else if (Integer.bitCount(pairs) == 2) {
+            type = TWO_PAIR;
+        } else if (pairs != 0) {
+            type = ONE_PAIR;
+        } else {
+            type = HIGH_CARD;
+        }
+
+        // Append each rank once per copy, highest rank first
+        int strength = type;
+        for (int remaining = ranks; remaining != 0; ) {
+            int bit = Integer.highestOneBit(remaining);
+            int rank = Integer.numberOfTrailingZeros(bit);
+            int copies = (fours & bit) != 0 ? 4 : (threesOrMore & bit) != 0 ? 3 : (pairsOrMore & bit) != 0 ? 2 : 1;
+            for (int i = 0; i < copies; i++) {
+                strength = (strength << 4) | rank;
+            }
+            remaining ^= bit;
+        }
+        return strength;
+    }
+}
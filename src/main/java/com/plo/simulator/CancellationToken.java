@@ -0,0 +1,48 @@
+package com.plo.simulator;
+
+/**
+ * Lets a caller end a running simulation early, either explicitly from another thread or
+ * automatically at a deadline. Workers poll the token between batches (about every millisecond),
+ * and the simulation returns its estimate so far instead of running to convergence.
+ */
+public class CancellationToken {
+
+    private final long deadlineNanos;
+    private final boolean hasDeadline;
+    private volatile boolean cancelled;
+
+    /**
+     * A token that only ends the run when cancel() is called
+     */
+    public CancellationToken() {
+        this.deadlineNanos = 0;
+        this.hasDeadline = false;
+    }
+
+    private CancellationToken(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+        this.hasDeadline = true;
+    }
+
+    /**
+     * A token that expires timeoutMillis from now, and can still be cancelled earlier
+     */
+    public static CancellationToken withTimeout(long timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Timeout must not be negative, got " + timeoutMillis);
+        }
+        return new CancellationToken(System.nanoTime() + timeoutMillis * 1_000_000);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isExpired() {
+        return hasDeadline && System.nanoTime() - deadlineNanos >= 0;
+    }
+}
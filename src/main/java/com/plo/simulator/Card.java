@@ -0,0 +1,113 @@
+package com.plo.simulator;
+
+/**
+ * Integer card encoding used by every hot path in the simulator.
+ *
+ * A card is an int in 0..51 laid out as {@code suit * 13 + rank}, where rank 0..12 maps to
+ * 2..A and suit 0..3 maps to c, d, h, s. Keeping each suit in its own 13-bit block means a
+ * {@link CardSet} bitmask can be split into per-suit rank masks with a shift and a mask.
+ * Two-character Strings ("As", "Kh") are only parsed and produced here, at the API boundary.
+ */
+public final class Card {
+
+    public static final int NUM_CARDS = 52;
+    public static final int NUM_RANKS = 13;
+    public static final int NUM_SUITS = 4;
+
+    private static final String RANK_CHARS = "23456789TJQKA";
+    private static final String SUIT_CHARS = "cdhs";
+
+    private Card() {
+    }
+
+    public static int of(int rank, int suit) {
+        return suit * NUM_RANKS + rank;
+    }
+
+    public static int rank(int card) {
+        return card % NUM_RANKS;
+    }
+
+    public static int suit(int card) {
+        return card / NUM_RANKS;
+    }
+
+    /**
+     * Get rank index (0 = deuce .. 12 = ace) for a rank character, or -1 if invalid
+     */
+    public static int rankOf(char rankChar) {
+        return RANK_CHARS.indexOf(rankChar);
+    }
+
+    /**
+     * Get suit index (0 = clubs .. 3 = spades) for a suit character, or -1 if invalid
+     */
+    public static int suitOf(char suitChar) {
+        return SUIT_CHARS.indexOf(suitChar);
+    }
+
+    public static char rankChar(int rank) {
+        return RANK_CHARS.charAt(rank);
+    }
+
+    public static char suitChar(int suit) {
+        return SUIT_CHARS.charAt(suit);
+    }
+
+    /**
+     * Parse a two-character card such as "As"; returns -1 if the card is not valid
+     */
+    public static int parseOrInvalid(String card) {
+        if (card == null || card.length() != 2) {
+            return -1;
+        }
+        int rank = rankOf(card.charAt(0));
+        int suit = suitOf(card.charAt(1));
+        if (rank < 0 || suit < 0) {
+            return -1;
+        }
+        return of(rank, suit);
+    }
+
+    public static int parse(String card) {
+        int parsed = parseOrInvalid(card);
+        if (parsed < 0) {
+            throw new IllegalArgumentException("Invalid card: " + card);
+        }
+        return parsed;
+    }
+
+    /**
+     * Parse concatenated cards such as "AsKhQdJc" into card ints, preserving input order
+     */
+    public static int[] parseCards(String cards) {
+        if (cards == null || cards.length() % 2 != 0) {
+            throw new IllegalArgumentException("Cards must be a sequence of two-character cards: " + cards);
+        }
+        int[] parsed = new int[cards.length() / 2];
+        for (int i = 0; i < parsed.length; i++) {
+            parsed[i] = parse(cards.substring(i * 2, i * 2 + 2));
+        }
+        return parsed;
+    }
+
+    public static int[] parseCards(String[] cards) {
+        int[] parsed = new int[cards.length];
+        for (int i = 0; i < cards.length; i++) {
+            parsed[i] = parse(cards[i]);
+        }
+        return parsed;
+    }
+
+    public static String toString(int card) {
+        return new String(new char[] {rankChar(rank(card)), suitChar(suit(card))});
+    }
+
+    public static String toString(int[] cards) {
+        StringBuilder sb = new StringBuilder(cards.length * 2);
+        for (int card : cards) {
+            sb.append(rankChar(rank(card))).append(suitChar(suit(card)));
+        }
+        return sb.toString();
+    }
+}
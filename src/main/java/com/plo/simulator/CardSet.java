@@ -0,0 +1,95 @@
+package com.plo.simulator;
+
+/**
+ * Static helpers for sets of cards packed into a {@code long} bitmask.
+ *
+ * Bit {@code n} is set when card {@code n} (see {@link Card}) is in the set, so the 13 bits of
+ * suit {@code s} sit at {@code s * 13} and dead-card checks, unions and counts are single
+ * instructions. Masks never allocate; Strings are only produced by {@link #toString(long)}.
+ */
+public final class CardSet {
+
+    public static final long EMPTY = 0L;
+    public static final long FULL_DECK = (1L << Card.NUM_CARDS) - 1;
+    public static final int RANK_MASK = (1 << Card.NUM_RANKS) - 1;
+
+    private CardSet() {
+    }
+
+    public static long of(int card) {
+        return 1L << card;
+    }
+
+    public static long of(int[] cards) {
+        long set = EMPTY;
+        for (int card : cards) {
+            set |= 1L << card;
+        }
+        return set;
+    }
+
+    public static long add(long set, int card) {
+        return set | (1L << card);
+    }
+
+    public static boolean contains(long set, int card) {
+        return (set & (1L << card)) != 0;
+    }
+
+    public static int size(long set) {
+        return Long.bitCount(set);
+    }
+
+    /**
+     * Get the 13-bit rank mask of the cards of one suit
+     */
+    public static int suitRanks(long set, int suit) {
+        return (int) (set >>> (suit * Card.NUM_RANKS)) & RANK_MASK;
+    }
+
+    /**
+     * Get the 13-bit mask of ranks present in any suit
+     */
+    public static int ranks(long set) {
+        return suitRanks(set, 0) | suitRanks(set, 1) | suitRanks(set, 2) | suitRanks(set, 3);
+    }
+
+    /**
+     * Parse concatenated cards such as "AsKsQsJsTs"; duplicate cards are rejected
+     */
+    public static long parse(String cards) {
+        long set = EMPTY;
+        for (int card : Card.parseCards(cards)) {
+            if (contains(set, card)) {
+                throw new IllegalArgumentException("Duplicate card " + Card.toString(card) + " in " + cards);
+            }
+            set = add(set, card);
+        }
+        return set;
+    }
+
+    public static int[] toArray(long set) {
+        int[] cards = new int[size(set)];
+        int i = 0;
+        while (set != 0) {
+            cards[i++] = Long.numberOfTrailingZeros(set);
+            set &= set - 1;
+        }
+        return cards;
+    }
+
+    /**
+     * Format cards sorted by rank (high to low), then by suit (s > h > d > c)
+     */
+    public static String toString(long set) {
+        StringBuilder sb = new StringBuilder(size(set) * 2);
+        for (int rank = Card.NUM_RANKS - 1; rank >= 0; rank--) {
+            for (int suit = Card.NUM_SUITS - 1; suit >= 0; suit--) {
+                if (contains(set, Card.of(rank, suit))) {
+                    sb.append(Card.rankChar(rank)).append(Card.suitChar(suit));
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.plo.simulator;
+
+/**
+ * Dense numbering of all C(52,4) = 270,725 four-card hands: cards are laid out by rank (deuces
+ * first) and within a rank by suit s, h, d, c, and hands are listed lexicographically by the
+ * positions of their cards in that layout.
+ *
+ * Index to hand is a table lookup; hand to index is a few binomial-table lookups (combinatorial
+ * number system), so bitsets over hands can be addressed without hashing.
+ */
+final class ComboIndex {
+
+    static final int NUM_COMBOS = 270725;
+
+    private static final int[][] BINOMIAL = new int[Card.NUM_CARDS + 1][5];
+    private static final int[] POSITION = new int[Card.NUM_CARDS];
+    private static final int[] CARD_AT = new int[Card.NUM_CARDS];
+    private static final long[] COMBOS = new long[NUM_COMBOS];
+
+    static {
+        for (int n = 0; n <= Card.NUM_CARDS; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= 4 && k <= n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k < n ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+        int position = 0;
+        for (int rank = 0; rank < Card.NUM_RANKS; rank++) {
+            for (int suit = Card.NUM_SUITS - 1; suit >= 0; suit--) {
+                int card = Card.of(rank, suit);
+                POSITION[card] = position;
+                CARD_AT[position++] = card;
+            }
+        }
+        int index = 0;
+        for (int a = 0; a < Card.NUM_CARDS; a++) {
+            for (int b = a + 1; b < Card.NUM_CARDS; b++) {
+                for (int c = b + 1; c < Card.NUM_CARDS; c++) {
+                    for (int d = c + 1; d < Card.NUM_CARDS; d++) {
+                        COMBOS[index++] = CardSet.of(CARD_AT[a]) | CardSet.of(CARD_AT[b])
+                                | CardSet.of(CARD_AT[c]) | CardSet.of(CARD_AT[d]);
+                    }
+                }
+            }
+        }
+    }
+
+    private ComboIndex() {
+    }
+
+    /**
+     * CardSet mask of the hand with the given index
+     */
+    static long combo(int index) {
+        return COMBOS[index];
+    }
+
+    /**
+     * Index of a CardSet mask holding exactly four cards
+     */
+    static int indexOf(long combo) {
+        if (Long.bitCount(combo) != 4) {
+            throw new IllegalArgumentException("Expected a 4-card hand, got " + Long.bitCount(combo) + " cards");
+        }
+        // Positions mirrored so the last hand in lexicographic order gets colex rank 0
+        long remaining = combo;
+        int p0 = mirroredPosition(remaining);
+        remaining &= remaining - 1;
+        int p1 = mirroredPosition(remaining);
+        remaining &= remaining - 1;
+        int p2 = mirroredPosition(remaining);
+        remaining &= remaining - 1;
+        int p3 = mirroredPosition(remaining);
+        // Sorting network, leaving p0 > p1 > p2 > p3
+        int t;
+        if (p0 < p1) {
+            t = p0;
+            p0 = p1;
+            p1 = t;
+        }
+        if (p2 < p3) {
+            t = p2;
+            p2 = p3;
+            p3 = t;
+        }
+        if (p0 < p2) {
+            t = p0;
+            p0 = p2;
+            p2 = t;
+        }
+        if (p1 < p3) {
+            t = p1;
+            p1 = p3;
+            p3 = t;
+        }
+        if (p1 < p2) {
+            t = p1;
+            p1 = p2;
+            p2 = t;
+        }
+        return NUM_COMBOS - 1 - (BINOMIAL[p0][4] + BINOMIAL[p1][3] + BINOMIAL[p2][2] + p3);
+    }
+
+    private static int mirroredPosition(long cards) {
+        return Card.NUM_CARDS - 1 - POSITION[Long.numberOfTrailingZeros(cards)];
+    }
+}
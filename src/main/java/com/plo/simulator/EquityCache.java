@@ -0,0 +1,318 @@
+package com.plo.simulator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of hero win rates in front of a {@link PLOSimulationEngine}. Queries are keyed
+ * by {@link HandNormalizer#canonicalSituation} with the villains taken in order of hand class,
+ * so matchups that differ only by a relabelling of suits or the order of the villains share one
+ * entry (villains of one class in different seats may still get separate entries, which only
+ * costs a simulation), and a hit costs well under a microsecond instead of a simulation.
+ *
+ * Entries are evicted least recently used beyond maxEntries and expire ttlMillis after they
+ * were computed. Only converged or exact results are cached; runs cut short by their deadline
+ * or cancellation are returned but not kept. The cache holds results for the engine's default
+ * options, so use one cache per engine configuration. save and load keep the entries across
+ * restarts in a CSV file.
+ */
+public class EquityCache {
+
+    public static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private static final String FILE_HEADER = "matchup,win_rate,standard_deviation,confidence_interval,simulations,stop_reason,expires_at";
+
+    /**
+     * Counters since the cache was created
+     */
+    public static class Stats {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long expirations;
+        public final int size;
+
+        public Stats(long hits, long misses, long evictions, long expirations, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.size = size;
+        }
+
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("EquityCache{size=%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, expirations=%d}",
+                    size, hits, misses, hitRate() * 100, evictions, expirations);
+        }
+    }
+
+    /**
+     * Canonical masks of a matchup, laid out as canonicalSituation returns them with the
+     * villains sorted
+     */
+    static final class Key {
+        private final long[] masks;
+        private final int hash;
+
+        private Key(long[] masks) {
+            this.masks = masks;
+            this.hash = Arrays.hashCode(masks);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(masks, ((Key) other).masks);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * "hero:villain:villain|board|dead", as stored by save
+         */
+        @Override
+        public String toString() {
+            StringBuilder key = new StringBuilder(CardSet.toString(masks[0]));
+            for (int v = 3; v < masks.length; v++) {
+                key.append(':').append(CardSet.toString(masks[v]));
+            }
+            return key.append('|').append(CardSet.toString(masks[1])).append('|').append(CardSet.toString(masks[2])).toString();
+        }
+    }
+
+    private static class CachedResult {
+        final PLOSimulationEngine.SimulationResult result;
+        final long expiresAt;
+
+        CachedResult(PLOSimulationEngine.SimulationResult result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final PLOSimulationEngine engine;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<Key, CachedResult> entries;
+    // Guarded by entries
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public EquityCache(PLOSimulationEngine engine, int maxEntries, long ttlMillis) {
+        this(engine, maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Cache reading time from the given wall clock in milliseconds, for tests
+     */
+    EquityCache(PLOSimulationEngine engine, int maxEntries, long ttlMillis, LongSupplier clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Max entries must be positive, got " + maxEntries);
+        }
+        if (ttlMillis < 1) {
+            throw new IllegalArgumentException("TTL must be positive, got " + ttlMillis);
+        }
+        this.engine = engine;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedResult> eldest) {
+                if (size() > EquityCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public PLOSimulationEngine.SimulationResult simulateAdaptive(String heroHand, List<String> villainHands) {
+        return simulateAdaptive(heroHand, villainHands, null, null);
+    }
+
+    /**
+     * Cached result of {@link PLOSimulationEngine#simulateAdaptive(String, List, String, String)}.
+     * Concurrent misses on the same matchup may each run the simulation; the last one is kept.
+     */
+    public PLOSimulationEngine.SimulationResult simulateAdaptive(String heroHand, List<String> villainHands,
+                                                                 String board, String deadCards) {
+        Key key = key(heroHand, villainHands, board, deadCards);
+        if (key == null) {
+            // Not a valid matchup: let the engine report it
+            return engine.simulateAdaptive(heroHand, villainHands, board, deadCards);
+        }
+        PLOSimulationEngine.SimulationResult cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        PLOSimulationEngine.SimulationResult result = engine.simulateAdaptive(heroHand, villainHands, board, deadCards);
+        if (result.stopReason == PLOSimulationEngine.StopReason.CONVERGED
+                || result.stopReason == PLOSimulationEngine.StopReason.EXACT) {
+            synchronized (entries) {
+                entries.put(key, new CachedResult(result, expiryFrom(clock.getAsLong())));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Cache key of a matchup, or null if a villain does not hold 4 cards. Villains are put in
+     * order of hand class before canonicalization, which makes the choice of suit labels
+     * independent of their seats, and sorted again after it. No villain hands, null or empty,
+     * means one random villain to the engine, so both get the same key.
+     */
+    static Key key(String heroHand, List<String> villainHands, String board, String deadCards) {
+        int numVillains = villainHands == null ? 0 : villainHands.size();
+        long[] villains = new long[numVillains];
+        int[] classes = new int[numVillains];
+        for (int v = 0; v < numVillains; v++) {
+            long villain = CardSet.parse(villainHands.get(v));
+            if (CardSet.size(villain) != 4) {
+                return null;
+            }
+            int handClass = HandNormalizer.handClass(villain);
+            // Insertion sort by class; a handful of villains at most
+            int i = v;
+            for (; i > 0 && classes[i - 1] > handClass; i--) {
+                classes[i] = classes[i - 1];
+                villains[i] = villains[i - 1];
+            }
+            classes[i] = handClass;
+            villains[i] = villain;
+        }
+        long[] masks = HandNormalizer.canonicalSituation(CardSet.parse(heroHand),
+                board == null ? CardSet.EMPTY : CardSet.parse(board),
+                deadCards == null ? CardSet.EMPTY : CardSet.parse(deadCards), villains);
+        Arrays.sort(masks, 3, masks.length);
+        return new Key(masks);
+    }
+
+    private PLOSimulationEngine.SimulationResult lookup(Key key) {
+        synchronized (entries) {
+            CachedResult entry = entries.get(key);
+            if (entry != null && entry.expiresAt <= clock.getAsLong()) {
+                entries.remove(key);
+                expirations++;
+                entry = null;
+            }
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            return entry.result;
+        }
+    }
+
+    private long expiryFrom(long now) {
+        return ttlMillis > NO_EXPIRY - now ? NO_EXPIRY : now + ttlMillis;
+    }
+
+    public Stats stats() {
+        synchronized (entries) {
+            return new Stats(hits, misses, evictions, expirations, entries.size());
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Write every unexpired entry to file, least recently used first. The file is replaced
+     * atomically, so a crash mid-save leaves the previous copy intact.
+     */
+    public void save(Path file) throws IOException {
+        StringBuilder lines = new StringBuilder(FILE_HEADER).append(System.lineSeparator());
+        synchronized (entries) {
+            long now = clock.getAsLong();
+            for (Map.Entry<Key, CachedResult> e : entries.entrySet()) {
+                CachedResult entry = e.getValue();
+                if (entry.expiresAt > now) {
+                    PLOSimulationEngine.SimulationResult result = entry.result;
+                    lines.append(String.format("%s,%s,%s,%s,%d,%s,%d%n", e.getKey(), result.winRate, result.standardDeviation,
+                            result.confidenceInterval, result.iterations, result.stopReason, entry.expiresAt));
+                }
+            }
+        }
+        Path absolute = file.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(temp, lines);
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Add the unexpired entries of a file written by save, keeping their original expiry;
+     * returns how many were added. Loaded entries count as more recently used than existing
+     * ones, and the size bound still applies. Matchups are keyed afresh, so files written under
+     * an older canonical form still hit.
+     */
+    public int load(Path file) throws IOException {
+        int loaded = 0;
+        long now = clock.getAsLong();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line = reader.readLine();
+            if (!FILE_HEADER.equals(line)) {
+                throw new IOException("Not an equity cache file: " + file);
+            }
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] fields = line.split(",");
+                if (fields.length != 7) {
+                    throw new IOException("Malformed equity cache line " + lineNumber + " in " + file);
+                }
+                try {
+                    long expiresAt = Long.parseLong(fields[6]);
+                    if (expiresAt <= now) {
+                        continue;
+                    }
+                    PLOSimulationEngine.SimulationResult result = new PLOSimulationEngine.SimulationResult(
+                            Double.parseDouble(fields[1]), Double.parseDouble(fields[2]), Double.parseDouble(fields[3]),
+                            Integer.parseInt(fields[4]), PLOSimulationEngine.StopReason.valueOf(fields[5]));
+                    String[] groups = fields[0].split("\\|", -1);
+                    String[] hands = groups[0].split(":");
+                    Key key = groups.length == 3
+                            ? key(hands[0], Arrays.asList(hands).subList(1, hands.length), groups[1], groups[2]) : null;
+                    if (key == null) {
+                        throw new IllegalArgumentException("bad matchup " + fields[0]);
+                    }
+                    synchronized (entries) {
+                        entries.put(key, new CachedResult(result, expiresAt));
+                    }
+                    loaded++;
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Malformed equity cache line " + lineNumber + " in " + file + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,14 @@
+package com.plo.simulator;
+
+/**
+ * Ranks 5-card poker hands. Ranks follow the numbering of the generated
+ * *_ranked_poker_hands.txt files: 1 is a royal flush, higher numbers are weaker hands
+ * and equal numbers tie.
+ */
+public interface HandEvaluator {
+
+    /**
+     * Get the rank of a 5-card hand given as a CardSet bitmask
+     */
+    int getHandRank(long hand);
+}
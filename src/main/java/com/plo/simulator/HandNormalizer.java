@@ -4,6 +4,11 @@ import java.util.*;
 
 public class HandNormalizer {
     
+    /** Number of 4-card hands that differ other than by a relabelling of suits */
+    public static final int NUM_HAND_CLASSES = 16432;
+    
+    private static final int[][] SUIT_PERMUTATIONS = suitPermutations();
+    
     /**
      * Result class to hold both normalized cards and the suit mapping
      */
@@ -240,14 +245,7 @@ public class HandNormalizer {
      * Get numeric value for card rank for sorting
      */
     private int getRankValue(char rank) {
-        switch (rank) {
-            case 'A': return 14;
-            case 'K': return 13;
-            case 'Q': return 12;
-            case 'J': return 11;
-            case 'T': return 10;
-            default: return Character.getNumericValue(rank);
-        }
+        return Card.rankOf(rank);
     }
     
     /**
@@ -258,4 +256,196 @@ public class HandNormalizer {
         NormalizationResult result = normalizeHand(cards);
         return result.normalizedCards;
     }
+    
+    /**
+     * Key shared by every suit-isomorphic situation: one CardSet mask per group (hero, board,
+     * dead cards, then each villain in seat order) with the suits relabelled canonically. Each
+     * suit is described by the tuple of its rank masks across the groups, and suits are
+     * relabelled s, h, d, c in descending order of those tuples; two situations are
+     * suit-isomorphic exactly when their sorted tuples agree, so no search over the 24
+     * permutations is needed. Allocates only the returned array. Villain order is kept, as it
+     * matters for per-seat results; groups are assumed not to share cards.
+     */
+    public static long[] canonicalSituation(long heroHand, long board, long deadCards, long... villainHands) {
+        // Sorting network over suit indexes, leaving the strongest tuple in s0
+        int s0 = Card.NUM_SUITS - 1;
+        int s1 = 2;
+        int s2 = 1;
+        int s3 = 0;
+        int t;
+        if (compareSuits(s0, s1, heroHand, board, deadCards, villainHands) < 0) {
+            t = s0;
+            s0 = s1;
+            s1 = t;
+        }
+        if (compareSuits(s2, s3, heroHand, board, deadCards, villainHands) < 0) {
+            t = s2;
+            s2 = s3;
+            s3 = t;
+        }
+        if (compareSuits(s0, s2, heroHand, board, deadCards, villainHands) < 0) {
+            t = s0;
+            s0 = s2;
+            s2 = t;
+        }
+        if (compareSuits(s1, s3, heroHand, board, deadCards, villainHands) < 0) {
+            t = s1;
+            s1 = s3;
+            s3 = t;
+        }
+        if (compareSuits(s1, s2, heroHand, board, deadCards, villainHands) < 0) {
+            t = s1;
+            s1 = s2;
+            s2 = t;
+        }
+        
+        long[] key = new long[3 + villainHands.length];
+        key[0] = relabelSuits(heroHand, s0, s1, s2, s3);
+        key[1] = relabelSuits(board, s0, s1, s2, s3);
+        key[2] = relabelSuits(deadCards, s0, s1, s2, s3);
+        for (int v = 0; v < villainHands.length; v++) {
+            key[3 + v] = relabelSuits(villainHands[v], s0, s1, s2, s3);
+        }
+        return key;
+    }
+    
+    /**
+     * canonicalSituation for cards given as Strings; board and dead cards may be null or empty
+     */
+    public static long[] canonicalSituation(String heroHand, List<String> villainHands, String board, String deadCards) {
+        long[] villains = new long[villainHands.size()];
+        for (int v = 0; v < villains.length; v++) {
+            villains[v] = CardSet.parse(villainHands.get(v));
+        }
+        return canonicalSituation(CardSet.parse(heroHand), board == null ? CardSet.EMPTY : CardSet.parse(board),
+                deadCards == null ? CardSet.EMPTY : CardSet.parse(deadCards), villains);
+    }
+    
+    /**
+     * Order of two suits by their rank masks in hero, board, dead cards, then villains
+     */
+    private static int compareSuits(int a, int b, long heroHand, long board, long deadCards, long[] villainHands) {
+        int cmp = Integer.compare(CardSet.suitRanks(heroHand, a), CardSet.suitRanks(heroHand, b));
+        if (cmp == 0) {
+            cmp = Integer.compare(CardSet.suitRanks(board, a), CardSet.suitRanks(board, b));
+        }
+        if (cmp == 0) {
+            cmp = Integer.compare(CardSet.suitRanks(deadCards, a), CardSet.suitRanks(deadCards, b));
+        }
+        for (int v = 0; cmp == 0 && v < villainHands.length; v++) {
+            cmp = Integer.compare(CardSet.suitRanks(villainHands[v], a), CardSet.suitRanks(villainHands[v], b));
+        }
+        return cmp;
+    }
+    
+    /**
+     * Cards of suits s0..s3 moved to spades, hearts, diamonds and clubs respectively
+     */
+    private static long relabelSuits(long cards, int s0, int s1, int s2, int s3) {
+        return (long) CardSet.suitRanks(cards, s0) << (3 * Card.NUM_RANKS)
+                | (long) CardSet.suitRanks(cards, s1) << (2 * Card.NUM_RANKS)
+                | (long) CardSet.suitRanks(cards, s2) << Card.NUM_RANKS
+                | CardSet.suitRanks(cards, s3);
+    }
+    
+    private static int[][] suitPermutations() {
+        List<int[]> permutations = new ArrayList<>();
+        for (int a = 0; a < Card.NUM_SUITS; a++) {
+            for (int b = 0; b < Card.NUM_SUITS; b++) {
+                for (int c = 0; c < Card.NUM_SUITS; c++) {
+                    int d = 6 - a - b - c;
+                    if (a != b && a != c && b != c && d >= 0 && d != a && d != b && d != c) {
+                        permutations.add(new int[] {a, b, c, d});
+                    }
+                }
+            }
+        }
+        return permutations.toArray(new int[0][]);
+    }
+    
+    /**
+     * Cards of suit s moved to suit permutation[s], ranks unchanged
+     */
+    private static long permuteSuits(long cards, int[] permutation) {
+        long permuted = CardSet.EMPTY;
+        for (int suit = 0; suit < Card.NUM_SUITS; suit++) {
+            permuted |= (long) CardSet.suitRanks(cards, suit) << (permutation[suit] * Card.NUM_RANKS);
+        }
+        return permuted;
+    }
+    
+    /**
+     * Dense id (0 .. NUM_HAND_CLASSES - 1) of a 4-card hand's suit-isomorphism class, from a
+     * table over every hand: O(1) and allocation-free. Classes are numbered in descending order
+     * of their representatives' masks, so class 0 is AsKsQsJs.
+     */
+    public static int handClass(long hand) {
+        return HandClasses.CLASS_OF_COMBO[ComboIndex.indexOf(hand)];
+    }
+    
+    /**
+     * Class id of a hand given as concatenated cards, e.g. "KdKh5h3d"
+     */
+    public static int handClass(String hand) {
+        long cards = CardSet.parse(hand);
+        if (CardSet.size(cards) != 4) {
+            throw new IllegalArgumentException("Hand must have exactly 4 cards: " + hand);
+        }
+        return handClass(cards);
+    }
+    
+    /**
+     * Canonical hand of a class, with suits assigned in the order s, h, d, c to the highest
+     * cards first, e.g. "AsAhKsKh"
+     */
+    public static String handClassRepresentative(int classId) {
+        return CardSet.toString(HandClasses.REPRESENTATIVES[classId]);
+    }
+    
+    static long handClassMask(int classId) {
+        return HandClasses.REPRESENTATIVES[classId];
+    }
+    
+    /**
+     * Number of the 270,725 hands in a class (24 for a rainbow hand with four ranks, down to 1
+     * for quads)
+     */
+    public static int handClassSize(int classId) {
+        return HandClasses.SIZES[classId];
+    }
+    
+    /**
+     * Class tables, built on first use: each hand's class is the largest mask among its 24 suit
+     * permutations
+     */
+    private static final class HandClasses {
+        static final int[] CLASS_OF_COMBO = new int[ComboIndex.NUM_COMBOS];
+        static final long[] REPRESENTATIVES;
+        static final int[] SIZES = new int[NUM_HAND_CLASSES];
+        
+        static {
+            long[] canonical = new long[ComboIndex.NUM_COMBOS];
+            for (int index = 0; index < ComboIndex.NUM_COMBOS; index++) {
+                long hand = ComboIndex.combo(index);
+                long best = 0;
+                for (int[] permutation : SUIT_PERMUTATIONS) {
+                    best = Math.max(best, permuteSuits(hand, permutation));
+                }
+                canonical[index] = best;
+            }
+            long[] distinct = Arrays.stream(canonical).distinct().sorted().toArray();
+            if (distinct.length != NUM_HAND_CLASSES) {
+                throw new IllegalStateException("Expected " + NUM_HAND_CLASSES + " hand classes, found " + distinct.length);
+            }
+            REPRESENTATIVES = new long[NUM_HAND_CLASSES];
+            for (int i = 0; i < NUM_HAND_CLASSES; i++) {
+                REPRESENTATIVES[i] = distinct[NUM_HAND_CLASSES - 1 - i];
+            }
+            for (int index = 0; index < ComboIndex.NUM_COMBOS; index++) {
+                int classId = NUM_HAND_CLASSES - 1 - Arrays.binarySearch(distinct, canonical[index]);
+                CLASS_OF_COMBO[index] = classId;
+                SIZES[classId]++;
+            }
+        }
+    }
 }
\ No newline at end of file
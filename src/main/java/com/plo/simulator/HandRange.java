@@ -0,0 +1,226 @@
+package com.plo.simulator;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted set of 4-card hands a villain may hold, e.g. the top 15% of hands or a hand-picked
+ * list. Immutable, so one instance can back any number of simulations at once.
+ *
+ * Simulations draw from a {@link Sampler} built for the cards already known to be out of play
+ * (hero, known villains, board, dead cards). Blocked combos are dropped by one bitmask test
+ * each when the sampler is built, and the survivors get a Walker alias table, so every draw is
+ * O(1) with no retries. Samplers are cached per dead-card mask, so repeated simulations of the
+ * same spot reuse them.
+ */
+public class HandRange {
+
+    private static final int MAX_CACHED_SAMPLERS = 256;
+
+    private final long[] combos;
+    private final double[] weights;
+    private final Map<Long, Sampler> samplers = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Sampler> eldest) {
+            return size() > MAX_CACHED_SAMPLERS;
+        }
+    };
+
+    private HandRange(long[] combos, double[] weights) {
+        this.combos = combos;
+        this.weights = weights;
+    }
+
+    /**
+     * Every hand equally likely; hands are concatenated cards such as "AsAdKsKd"
+     */
+    public static HandRange of(Collection<String> hands) {
+        Map<String, Double> handWeights = new LinkedHashMap<>();
+        for (String hand : hands) {
+            handWeights.put(hand, 1.0);
+        }
+        return weighted(handWeights);
+    }
+
+    /**
+     * Hands drawn in proportion to their weights. Hands listed more than once (in any card
+     * order) have their weights added; hands of weight 0 are left out.
+     */
+    public static HandRange weighted(Map<String, Double> handWeights) {
+        Map<Long, Double> merged = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> entry : handWeights.entrySet()) {
+            long combo = parseHand(entry.getKey());
+            Double weight = entry.getValue();
+            if (weight == null || !(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Weight of " + entry.getKey()
+                        + " must be a finite non-negative number, got " + weight);
+            }
+            if (weight > 0) {
+                merged.merge(combo, weight, Double::sum);
+            }
+        }
+        return fromCombos(merged);
+    }
+
+    /**
+     * Range over CardSet masks of exactly four cards, for callers that already work in bitmasks
+     */
+    static HandRange fromCombos(Map<Long, Double> comboWeights) {
+        if (comboWeights.isEmpty()) {
+            throw new IllegalArgumentException("Hand range must contain at least one hand with positive weight");
+        }
+        long[] combos = new long[comboWeights.size()];
+        double[] weights = new double[combos.length];
+        int i = 0;
+        for (Map.Entry<Long, Double> entry : comboWeights.entrySet()) {
+            combos[i] = entry.getKey();
+            weights[i] = entry.getValue();
+            i++;
+        }
+        return new HandRange(combos, weights);
+    }
+
+    private static long parseHand(String hand) {
+        if (hand == null || hand.length() != 8) {
+            throw new IllegalArgumentException("Range hand must be exactly 8 characters (4 cards), got: " + hand);
+        }
+        return CardSet.parse(hand);
+    }
+
+    public int size() {
+        return combos.length;
+    }
+
+    public double totalWeight() {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        return total;
+    }
+
+    /**
+     * Weight of a hand given as concatenated cards, in any order; 0 if not in the range
+     */
+    public double weight(String hand) {
+        long combo = parseHand(hand);
+        for (int i = 0; i < combos.length; i++) {
+            if (combos[i] == combo) {
+                return weights[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Sampler over the combos that share no card with deadCards, built once per mask and cached.
+     * Throws IllegalArgumentException if every combo is blocked.
+     */
+    Sampler sampler(long deadCards) {
+        synchronized (samplers) {
+            Sampler sampler = samplers.get(deadCards);
+            if (sampler == null) {
+                sampler = new Sampler(combos, weights, deadCards);
+                samplers.put(deadCards, sampler);
+            }
+            return sampler;
+        }
+    }
+
+    /**
+     * Walker alias table over the live combos of a range. Each slot i keeps combo i with
+     * probability threshold[i] and otherwise hands over to alias[i]; a draw is one uniform slot
+     * and one uniform double. Hands are stored as card arrays ready for evaluation.
+     */
+    static final class Sampler {
+        final long[] combos;
+        final int[][] hands;
+        private final double[] threshold;
+        private final int[] alias;
+
+        private Sampler(long[] rangeCombos, double[] rangeWeights, long deadCards) {
+            int live = 0;
+            long[] liveCombos = new long[rangeCombos.length];
+            double[] liveWeights = new double[rangeCombos.length];
+            double total = 0;
+            for (int i = 0; i < rangeCombos.length; i++) {
+                if ((rangeCombos[i] & deadCards) == 0) {
+                    liveCombos[live] = rangeCombos[i];
+                    liveWeights[live] = rangeWeights[i];
+                    total += rangeWeights[i];
+                    live++;
+                }
+            }
+            if (live == 0) {
+                throw new IllegalArgumentException("Every hand in the villain range is blocked by known cards");
+            }
+            this.combos = Arrays.copyOf(liveCombos, live);
+            this.hands = new int[live][];
+            for (int i = 0; i < live; i++) {
+                hands[i] = CardSet.toArray(combos[i]);
+            }
+            this.threshold = new double[live];
+            this.alias = new int[live];
+            buildAliasTable(liveWeights, total);
+        }
+
+        /**
+         * Vose's construction: scale weights to mean 1, then pair each under-full slot with an
+         * over-full one that tops it up
+         */
+        private void buildAliasTable(double[] liveWeights, double total) {
+            int n = threshold.length;
+            double[] scaled = new double[n];
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int numSmall = 0;
+            int numLarge = 0;
+            for (int i = 0; i < n; i++) {
+                scaled[i] = liveWeights[i] * n / total;
+                if (scaled[i] < 1) {
+                    small[numSmall++] = i;
+                } else {
+                    large[numLarge++] = i;
+                }
+            }
+            while (numSmall > 0 && numLarge > 0) {
+                int under = small[--numSmall];
+                int over = large[--numLarge];
+                threshold[under] = scaled[under];
+                alias[under] = over;
+                scaled[over] -= 1 - scaled[under];
+                if (scaled[over] < 1) {
+                    small[numSmall++] = over;
+                } else {
+                    large[numLarge++] = over;
+                }
+            }
+            // Whatever is left is full up to rounding error
+            while (numLarge > 0) {
+                int i = large[--numLarge];
+                threshold[i] = 1;
+                alias[i] = i;
+            }
+            while (numSmall > 0) {
+                int i = small[--numSmall];
+                threshold[i] = 1;
+                alias[i] = i;
+            }
+        }
+
+        int size() {
+            return combos.length;
+        }
+
+        /**
+         * Index of a combo drawn in proportion to its weight
+         */
+        int sample(SplittableRandom random) {
+            int slot = random.nextInt(threshold.length);
+            return random.nextDouble() < threshold[slot] ? slot : alias[slot];
+        }
+    }
+}
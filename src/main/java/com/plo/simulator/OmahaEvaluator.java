@@ -0,0 +1,190 @@
+package com.plo.simulator;
+
+/**
+ * Best-hand evaluator for Omaha: exactly two of the four hole cards plus exactly three of the
+ * five community cards. Returns the same rank numbers as the {@link HandEvaluator} it is built
+ * from (lower is better).
+ *
+ * Instead of 60 independent 5-card lookups, hands are split into two cases:
+ * <ul>
+ *   <li>Non-flush: every rank gets an additive key chosen so that the sum of any five ranks
+ *       (at most four of a kind) is unique. A hand's rank is then one read from a table indexed
+ *       by {@code pairKey + tripleKey}, with the ten board triple keys computed once.</li>
+ *   <li>Flush: only possible when the board has three or more cards of one suit and the hole
+ *       has two of that suit, so the work is skipped entirely otherwise. Suited hands are looked
+ *       up by their 13-bit rank mask.</li>
+ * </ul>
+ * Both tables are derived from the 5-card evaluator at construction and take under 1 MB, so the
+ * 5-card backend is not touched again while simulating.
+ */
+public class OmahaEvaluator {
+
+    // Greedy minimal keys: sums over any five ranks with at most four copies each are distinct
+    private static final int[] RANK_KEYS = {
+        0, 1, 5, 22, 94, 312, 992, 2422, 5624, 12522, 19998, 43258, 79415
+    };
+    private static final int MAX_RANK_KEY = 4 * RANK_KEYS[12] + RANK_KEYS[11];
+
+    // Index pairs for the 6 hole-card pairs and the 10 board triples
+    private static final int[][] HOLE_PAIRS = {{0, 1}, {0, 2}, {0, 3}, {1, 2}, {1, 3}, {2, 3}};
+    private static final int[][] BOARD_TRIPLES = {
+        {0, 1, 2}, {0, 1, 3}, {0, 1, 4}, {0, 2, 3}, {0, 2, 4},
+        {0, 3, 4}, {1, 2, 3}, {1, 2, 4}, {1, 3, 4}, {2, 3, 4}
+    };
+
+    private final short[] nonFlushRanks = new short[MAX_RANK_KEY + 1];
+    private final short[] flushRanks = new short[1 << Card.NUM_RANKS];
+
+    public OmahaEvaluator(HandEvaluator handEvaluator) {
+        buildNonFlushRanks(handEvaluator, new int[5], 0, 0);
+        buildFlushRanks(handEvaluator);
+    }
+
+    /**
+     * Fill nonFlushRanks for every multiset of five ranks, using off-suit representative cards
+     */
+    private void buildNonFlushRanks(HandEvaluator handEvaluator, int[] ranks, int count, int minRank) {
+        if (count == 5) {
+            long hand = CardSet.EMPTY;
+            int key = 0;
+            for (int i = 0; i < 5; i++) {
+                // Equal ranks are adjacent, so cycling suits keeps them distinct and avoids a flush
+                hand = CardSet.add(hand, Card.of(ranks[i], i % Card.NUM_SUITS));
+                key += RANK_KEYS[ranks[i]];
+            }
+            if (nonFlushRanks[key] != 0) {
+                throw new IllegalStateException("Rank key collision at " + key);
+            }
+            nonFlushRanks[key] = (short) handEvaluator.getHandRank(hand);
+            return;
+        }
+        for (int rank = minRank; rank < Card.NUM_RANKS; rank++) {
+            if (count >= 4 && ranks[count - 4] == rank) {
+                continue; // At most four cards of a rank
+            }
+            ranks[count] = rank;
+            buildNonFlushRanks(handEvaluator, ranks, count + 1, rank);
+        }
+    }
+
+    private void buildFlushRanks(HandEvaluator handEvaluator) {
+        for (int rankMask = 0; rankMask < flushRanks.length; rankMask++) {
+            if (Integer.bitCount(rankMask) == 5) {
+                // Suit 0 occupies the low 13 bits of a CardSet
+                flushRanks[rankMask] = (short) handEvaluator.getHandRank((long) rankMask);
+            }
+        }
+    }
+
+    /**
+     * Community cards preprocessed once per runout: the distinct board triple keys and, when the
+     * board has three or more cards of a suit, that suit and its 3-card rank masks. Every player
+     * is then evaluated against the same Board. Instances are mutable and meant to be reused by
+     * one thread across runouts.
+     */
+    public static final class Board {
+        private final int[] tripleKeys = new int[BOARD_TRIPLES.length];
+        private int tripleCount;
+        private int flushSuit;
+        private final int[] flushTriples = new int[BOARD_TRIPLES.length];
+        private int flushTripleCount;
+
+        public Board set(int[] board) {
+            // Paired boards repeat rank multisets, so only distinct triple keys are kept
+            tripleCount = 0;
+            for (int[] triple : BOARD_TRIPLES) {
+                int tripleKey = RANK_KEYS[Card.rank(board[triple[0]])]
+                        + RANK_KEYS[Card.rank(board[triple[1]])]
+                        + RANK_KEYS[Card.rank(board[triple[2]])];
+                if (!containsTripleKey(tripleKey)) {
+                    tripleKeys[tripleCount++] = tripleKey;
+                }
+            }
+
+            // Five board cards leave room for at most one suit with three or more
+            long cards = CardSet.of(board);
+            flushSuit = -1;
+            flushTripleCount = 0;
+            for (int suit = 0; suit < Card.NUM_SUITS; suit++) {
+                int suitRanks = CardSet.suitRanks(cards, suit);
+                if (Integer.bitCount(suitRanks) >= 3) {
+                    flushSuit = suit;
+                    for (int b1 = suitRanks; b1 != 0; b1 &= b1 - 1) {
+                        for (int b2 = b1 & (b1 - 1); b2 != 0; b2 &= b2 - 1) {
+                            for (int b3 = b2 & (b2 - 1); b3 != 0; b3 &= b3 - 1) {
+                                flushTriples[flushTripleCount++] =
+                                        Integer.lowestOneBit(b1) | Integer.lowestOneBit(b2) | Integer.lowestOneBit(b3);
+                            }
+                        }
+                    }
+                }
+            }
+            return this;
+        }
+
+        private boolean containsTripleKey(int tripleKey) {
+            for (int i = 0; i < tripleCount; i++) {
+                if (tripleKeys[i] == tripleKey) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public Board prepareBoard(int[] board) {
+        return new Board().set(board);
+    }
+
+    /**
+     * Evaluate four hole cards and five community cards given as card ints
+     */
+    public int evaluate(int[] hole, int[] board) {
+        return evaluate(hole, prepareBoard(board));
+    }
+
+    /**
+     * Evaluate hole and board given as CardSet bitmasks of 4 and 5 cards
+     */
+    public int evaluate(long hole, long board) {
+        return evaluate(CardSet.toArray(hole), CardSet.toArray(board));
+    }
+
+    /**
+     * Evaluate four hole cards against a prepared board
+     */
+    public int evaluate(int[] hole, Board board) {
+        int bestRank = Integer.MAX_VALUE;
+        for (int[] pair : HOLE_PAIRS) {
+            int pairKey = RANK_KEYS[Card.rank(hole[pair[0]])] + RANK_KEYS[Card.rank(hole[pair[1]])];
+            for (int t = 0; t < board.tripleCount; t++) {
+                int rank = nonFlushRanks[pairKey + board.tripleKeys[t]];
+                if (rank < bestRank) {
+                    bestRank = rank;
+                }
+            }
+        }
+
+        if (board.flushSuit < 0) {
+            return bestRank;
+        }
+        int flushRanksInHole = 0;
+        for (int card : hole) {
+            if (Card.suit(card) == board.flushSuit) {
+                flushRanksInHole |= 1 << Card.rank(card);
+            }
+        }
+        for (int h1 = flushRanksInHole; h1 != 0; h1 &= h1 - 1) {
+            for (int h2 = h1 & (h1 - 1); h2 != 0; h2 &= h2 - 1) {
+                int pair = Integer.lowestOneBit(h1) | Integer.lowestOneBit(h2);
+                for (int t = 0; t < board.flushTripleCount; t++) {
+                    int rank = flushRanks[pair | board.flushTriples[t]];
+                    if (rank < bestRank) {
+                        bestRank = rank;
+                    }
+                }
+            }
+        }
+        return bestRank;
+    }
+}
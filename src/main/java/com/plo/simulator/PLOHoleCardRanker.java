@@ -1,19 +1,73 @@
 package com.plo.simulator;
 
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
 
 public class PLOHoleCardRanker {
+    private static final String CSV_HEADER = "rank,normalized_hand,win_rate,standard_deviation,confidence_interval,simulations";
+    private static final String CHECKPOINT_HEADER = "normalized_hand,win_rate,standard_deviation,confidence_interval,simulations";
+    // A checkpoint is forced to disk after this many results, or this long after the last sync
+    private static final int CHECKPOINT_BATCH = 64;
+    private static final long CHECKPOINT_SYNC_MILLIS = 10_000;
+    // Simulations every hand gets before adaptive ranking decides where to spend more
+    private static final int RACE_INITIAL_SIMULATIONS = 1000;
+    private static final double CONFIDENCE_LEVEL_95 = 1.96;
+    
     private final PLOSimulationEngine engine;
-    private final HandNormalizer normalizer;
-    private final String[] ranks = {"2", "3", "4", "5", "6", "7", "8", "9", "T", "J", "Q", "K", "A"};
-    private final String[] suits = {"s", "h", "d", "c"};
+    private ProgressListener progressListener = PLOHoleCardRanker::printProgress;
+    
+    /**
+     * Receives every hand's result as soon as it is simulated, so callers can track a ranking
+     * run without parsing stdout
+     */
+    public interface ProgressListener {
+        void handRanked(int handIndex, int totalHands, String normalizedHand,
+                        PLOSimulationEngine.SimulationResult result, long elapsedMillis);
+    }
     
     public PLOHoleCardRanker(String handCacheFile) {
-        this.engine = new PLOSimulationEngine();
-        this.normalizer = new HandNormalizer();
+        this(new PLOSimulationEngine());
+    }
+    
+    /**
+     * Ranker running on the given engine, e.g. one with looser precision targets
+     */
+    PLOHoleCardRanker(PLOSimulationEngine engine) {
+        this.engine = engine;
+    }
+    
+    /**
+     * Replace the default listener, which prints one line per hand
+     */
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+    
+    private static void printProgress(int handIndex, int totalHands, String normalizedHand,
+                                      PLOSimulationEngine.SimulationResult result, long elapsedMillis) {
+        long minutes = elapsedMillis / 60000;
+        long seconds = (elapsedMillis % 60000) / 1000;
+        
+        System.out.printf("Normalized Hand %d/%d %s %.1f%% %.4f %.4f CumulativeTime %dm%ds (iterations: %d)%n", 
+                        handIndex, totalHands, normalizedHand,
+                        result.winRate * 100, result.standardDeviation * 100, result.confidenceInterval * 100,
+                        minutes, seconds, result.iterations);
     }
     
     public static void main(String[] args) {
@@ -21,152 +75,418 @@ public class PLOHoleCardRanker {
         
         if (args.length > 0 && args[0].equals("test")) {
             ranker.rankTestHands("plo_hand_rankings_test.csv");
+        } else if (args.length > 1 && args[0].equals("refine")) {
+            // refine <rankings.csv> [sd ci]
+            double targetSd = args.length > 3 ? Double.parseDouble(args[2]) : SimulationOptions.DEFAULT_STOPPING_SD;
+            double targetCi = args.length > 3 ? Double.parseDouble(args[3]) : SimulationOptions.DEFAULT_STOPPING_CI;
+            ranker.refineRankings(Paths.get(args[1]), "plo_hand_rankings_refined.csv", targetSd, targetCi);
+        } else if (args.length > 0 && args[0].equals("adaptive")) {
+            // Never finer than the flat run: its 95% interval, and its count for a 50% hand as the cap
+            double standardDeviation = Math.min(SimulationOptions.DEFAULT_STOPPING_SD,
+                    SimulationOptions.DEFAULT_STOPPING_CI / CONFIDENCE_LEVEL_95);
+            ranker.rankAllHandsAdaptive("plo_hand_rankings_adaptive.csv", 0.95, SimulationOptions.DEFAULT_STOPPING_CI,
+                    (int) Math.ceil(0.25 / (standardDeviation * standardDeviation)));
         } else {
             ranker.rankAllHands("plo_hand_rankings.csv");
         }
     }
     
     public void rankAllHands(String csvFilename) {
-        System.out.println("Generating all possible PLO hole card combinations...");
+        rankAllHands(csvFilename, Paths.get(csvFilename + ".checkpoint"));
+    }
+    
+    /**
+     * Rank every hand class, appending each result to checkpointFile as soon as it completes.
+     * If the run is stopped or crashes, calling this again with the same files resumes it:
+     * hands already in the checkpoint are not simulated again. The sorted CSV is written from
+     * all results at the end, after which the checkpoint is deleted.
+     */
+    public void rankAllHands(String csvFilename, Path checkpointFile) {
+        // One hand per suit-isomorphism class stands in for every hand in the class
+        System.out.println("Grouping all possible PLO hole card combinations by suit isomorphism...");
+        Set<String> uniqueNormalizedHands = new LinkedHashSet<>();
+        for (int classId = 0; classId < HandNormalizer.NUM_HAND_CLASSES; classId++) {
+            uniqueNormalizedHands.add(HandNormalizer.handClassRepresentative(classId));
+        }
         
-        List<String[]> allHands = generateAll4CardCombinations();
-        System.out.println("Total hands to evaluate: " + allHands.size());
+        System.out.println(ComboIndex.NUM_COMBOS + " pre-flop hands normalized to " + uniqueNormalizedHands.size() + " hands");
         
-        // Normalize all hands first to get unique combinations
-        System.out.println("Normalizing all hands...");
-        Set<String> uniqueNormalizedHands = new HashSet<>();
+        if (rankHands(uniqueNormalizedHands, csvFilename, checkpointFile)) {
+            System.out.println("Ranking complete! Results written to: " + csvFilename);
+        }
+    }
+    
+    /**
+     * Checkpointed ranking of the given normalized hands; false if it stopped on an I/O error,
+     * in which case the checkpoint keeps everything finished so far
+     */
+    boolean rankHands(Collection<String> normalizedHands, String csvFilename, Path checkpointFile) {
+        Map<String, HandResult> results = new HashMap<>();
+        try (Checkpoint checkpoint = new Checkpoint(checkpointFile)) {
+            for (HandResult done : checkpoint.completed) {
+                if (normalizedHands.contains(done.normalizedHand)) {
+                    results.put(done.normalizedHand, done);
+                }
+            }
+            List<String> remaining = new ArrayList<>();
+            for (String normalizedHand : normalizedHands) {
+                if (!results.containsKey(normalizedHand)) {
+                    remaining.add(normalizedHand);
+                }
+            }
+            if (!results.isEmpty()) {
+                System.out.println("Resuming from " + checkpointFile + ": " + results.size() + " of "
+                        + normalizedHands.size() + " hands already ranked");
+            }
+            results.putAll(simulateHands(remaining, checkpoint::append));
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error writing checkpoint " + checkpointFile + ": " + e.getMessage());
+            return false;
+        }
         
-        for (String[] hand : allHands) {
-            HandNormalizer.NormalizationResult normalized = normalizer.normalizeHand(hand);
-            String normalizedHand = arrayToString(normalized.normalizedCards);
-            uniqueNormalizedHands.add(normalizedHand);
+        if (!writeRankings(csvFilename, results.values())) {
+            return false;
+        }
+        try {
+            Files.deleteIfExists(checkpointFile);
+        } catch (IOException e) {
+            System.err.println("Could not delete checkpoint " + checkpointFile + ": " + e.getMessage());
+        }
+        return true;
+    }
+    
+    /**
+     * Rank every hand class spending simulations only where the order is still in doubt,
+     * instead of driving every hand to the same precision. See raceHands for the parameters.
+     */
+    public void rankAllHandsAdaptive(String csvFilename, double confidence, double resolution, int maxSimulationsPerHand) {
+        List<String> hands = new ArrayList<>();
+        for (int classId = 0; classId < HandNormalizer.NUM_HAND_CLASSES; classId++) {
+            hands.add(HandNormalizer.handClassRepresentative(classId));
+        }
+        Map<String, HandResult> results = raceHands(hands, confidence, resolution, maxSimulationsPerHand);
+        if (writeRankings(csvFilename, results.values())) {
+            System.out.println("Adaptive ranking complete! Results written to: " + csvFilename);
+        }
+    }
+    
+    /**
+     * Successive elimination over the ranking: every hand gets a first round of simulations,
+     * then only hands whose confidence interval still overlaps a neighbour's in the current
+     * order get more, each round doubling their count. A neighbouring pair is settled once
+     * its intervals are disjoint, or both hands are resolved: their 95% confidence interval is
+     * within resolution, as a flat run with that stopping CI would leave it. No hand is taken
+     * past the runouts that resolve it or past maxSimulationsPerHand, so the whole race never
+     * spends more than a flat run to the same CI; it only saves where neighbours separate early.
+     *
+     * Pairs settled by disjoint intervals are ordered correctly with the given confidence
+     * (Bonferroni over the pairs, ignoring the repeated looks). Pairs settled by resolution, or
+     * by the cap, carry only the flat run's guarantee: hands whose win rates differ by less
+     * than their intervals may be left in either order.
+     */
+    Map<String, HandResult> raceHands(Collection<String> normalizedHands, double confidence, double resolution,
+                                      int maxSimulationsPerHand) {
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("Confidence must be between 0 and 1, got " + confidence);
+        }
+        if (!(resolution > 0)) {
+            throw new IllegalArgumentException("Resolution must be positive, got " + resolution);
         }
+        if (maxSimulationsPerHand < 1) {
+            throw new IllegalArgumentException("Max simulations per hand must be positive, got " + maxSimulationsPerHand);
+        }
+        List<String> hands = new ArrayList<>(normalizedHands);
+        int numHands = hands.size();
+        double z = normalQuantile(1 - (1 - confidence) / (2 * Math.max(1, numHands - 1)));
+        long[] wins = new long[numHands];
+        int[] simulations = new int[numHands];
+        int[] targets = new int[numHands];
+        Arrays.fill(targets, Math.min(RACE_INITIAL_SIMULATIONS, maxSimulationsPerHand));
         
-        System.out.println(allHands.size() + " pre-flop hands normalized to " + uniqueNormalizedHands.size() + " hands");
+        System.out.printf("Adaptive ranking of %d hands, z = %.2f per interval%n", numHands, z);
+        long startTime = System.currentTimeMillis();
+        for (int round = 1; ; round++) {
+            int active = runToTargets(hands, wins, simulations, targets);
+            
+            Integer[] order = new Integer[numHands];
+            for (int i = 0; i < numHands; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare((double) wins[b] / simulations[b], (double) wins[a] / simulations[a]));
+            
+            boolean[] unsettled = new boolean[numHands];
+            for (int k = 0; k + 1 < order.length; k++) {
+                int higher = order[k];
+                int lower = order[k + 1];
+                double higherSd = standardDeviation(wins[higher], simulations[higher]);
+                double lowerSd = standardDeviation(wins[lower], simulations[lower]);
+                boolean disjoint = (double) wins[higher] / simulations[higher] - z * higherSd
+                        > (double) wins[lower] / simulations[lower] + z * lowerSd;
+                boolean resolved = CONFIDENCE_LEVEL_95 * higherSd <= resolution && CONFIDENCE_LEVEL_95 * lowerSd <= resolution;
+                if (!disjoint && !resolved) {
+                    unsettled[higher] = true;
+                    unsettled[lower] = true;
+                }
+            }
+            
+            long totalSimulations = 0;
+            int unsettledHands = 0;
+            for (int i = 0; i < numHands; i++) {
+                totalSimulations += simulations[i];
+                if (unsettled[i]) {
+                    // Runouts that bring this hand's interval within resolution at its current win rate
+                    double winRate = (double) wins[i] / simulations[i];
+                    double resolving = Math.ceil(winRate * (1 - winRate) * Math.pow(CONFIDENCE_LEVEL_95 / resolution, 2));
+                    int target = (int) Math.min(Math.min(maxSimulationsPerHand, 2L * simulations[i]), resolving);
+                    if (target > simulations[i]) {
+                        targets[i] = target;
+                        unsettledHands++;
+                    }
+                }
+            }
+            long elapsedMillis = System.currentTimeMillis() - startTime;
+            System.out.printf("Round %d: simulated %d hands, %d still unsettled, %d simulations in total (%dm%ds)%n",
+                            round, active, unsettledHands, totalSimulations, elapsedMillis / 60000, (elapsedMillis % 60000) / 1000);
+            if (unsettledHands == 0) {
+                break;
+            }
+        }
         
-        // Simulate each unique normalized hand
         Map<String, HandResult> results = new HashMap<>();
+        for (int i = 0; i < numHands; i++) {
+            results.put(hands.get(i), toHandResult(hands.get(i), wins[i], simulations[i]));
+        }
+        return results;
+    }
+    
+    /**
+     * Tighten an existing rankings file to new precision targets without starting over. Each
+     * hand's win count is rebuilt from its win_rate and simulations and only the runouts still
+     * needed are simulated; the CSV written holds the merged counts. Hands missing from the
+     * existing file are simulated from scratch.
+     */
+    public void refineRankings(Path existingRankings, String csvFilename, double targetStandardDeviation,
+                               double targetConfidenceInterval) {
+        Map<String, HandResult> seeds;
+        try {
+            seeds = loadRankings(existingRankings);
+        } catch (IOException e) {
+            System.err.println("Error reading rankings " + existingRankings + ": " + e.getMessage());
+            return;
+        }
+        List<String> hands = new ArrayList<>();
+        for (int classId = 0; classId < HandNormalizer.NUM_HAND_CLASSES; classId++) {
+            hands.add(HandNormalizer.handClassRepresentative(classId));
+        }
+        System.out.println("Seeding " + seeds.size() + " of " + hands.size() + " hands from " + existingRankings);
+        
+        Map<String, HandResult> results = refineHands(hands, seeds, targetStandardDeviation, targetConfidenceInterval);
+        if (writeRankings(csvFilename, results.values())) {
+            System.out.println("Refined ranking complete! Results written to: " + csvFilename);
+        }
+    }
+    
+    /**
+     * Rankings CSV rows keyed by the representative of each hand's class, so files written
+     * before hand classes existed seed the right hands. Rows of one class are merged.
+     */
+    static Map<String, HandResult> loadRankings(Path rankingsFile) throws IOException {
+        Map<String, long[]> counts = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(rankingsFile)) {
+            String line = reader.readLine();
+            if (!CSV_HEADER.equals(line)) {
+                throw new IOException("Not a hole card rankings file: " + rankingsFile);
+            }
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] fields = line.split(",");
+                if (fields.length != 6) {
+                    throw new IOException("Malformed rankings line " + lineNumber + " in " + rankingsFile);
+                }
+                try {
+                    String hand = HandNormalizer.handClassRepresentative(HandNormalizer.handClass(fields[1]));
+                    int simulations = Integer.parseInt(fields[5]);
+                    long[] count = counts.computeIfAbsent(hand, h -> new long[2]);
+                    count[0] += Math.round(Double.parseDouble(fields[2]) * simulations);
+                    count[1] += simulations;
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Malformed rankings line " + lineNumber + " in " + rankingsFile + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        Map<String, HandResult> results = new LinkedHashMap<>();
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            results.put(entry.getKey(), toHandResult(entry.getKey(), entry.getValue()[0], (int) entry.getValue()[1]));
+        }
+        return results;
+    }
+    
+    /**
+     * Bring every hand to the precision targets, starting from the counts in seeds where a hand
+     * has one. Hands whose seed already meets the targets are returned unchanged.
+     */
+    Map<String, HandResult> refineHands(Collection<String> normalizedHands, Map<String, HandResult> seeds,
+                                        double targetStandardDeviation, double targetConfidenceInterval) {
+        if (!(targetStandardDeviation > 0) || !(targetConfidenceInterval > 0)) {
+            throw new IllegalArgumentException("Precision targets must be positive");
+        }
+        double standardDeviation = Math.min(targetStandardDeviation, targetConfidenceInterval / CONFIDENCE_LEVEL_95);
+        List<String> hands = new ArrayList<>(normalizedHands);
+        int numHands = hands.size();
+        long[] wins = new long[numHands];
+        int[] simulations = new int[numHands];
+        int[] targets = new int[numHands];
+        long seededSimulations = 0;
+        for (int i = 0; i < numHands; i++) {
+            HandResult seed = seeds.get(hands.get(i));
+            if (seed != null) {
+                simulations[i] = seed.simulations;
+                wins[i] = Math.round(seed.winRate * seed.simulations);
+                seededSimulations += simulations[i];
+            }
+        }
+        
+        // The runouts needed depend on the win rate, which moves as runouts are added, so
+        // top up until every hand meets the targets at its current estimate
         long startTime = System.currentTimeMillis();
-        int handIndex = 0;
+        long addedSimulations = 0;
+        while (true) {
+            for (int i = 0; i < numHands; i++) {
+                double winRate = simulations[i] == 0 ? 0.5 : (double) wins[i] / simulations[i];
+                double required = Math.ceil(winRate * (1 - winRate) / (standardDeviation * standardDeviation));
+                targets[i] = (int) Math.max(simulations[i], Math.min(Integer.MAX_VALUE, Math.max(1, required)));
+                addedSimulations += targets[i] - simulations[i];
+            }
+            int simulated = runToTargets(hands, wins, simulations, targets);
+            if (simulated == 0) {
+                break;
+            }
+            long elapsedMillis = System.currentTimeMillis() - startTime;
+            System.out.printf("Refined %d hands, %d simulations added to %d seeded (%dm%ds)%n",
+                            simulated, addedSimulations, seededSimulations, elapsedMillis / 60000, (elapsedMillis % 60000) / 1000);
+        }
         
-        System.out.println("Starting simulation of " + uniqueNormalizedHands.size() + " unique hands...");
+        Map<String, HandResult> results = new HashMap<>();
+        for (int i = 0; i < numHands; i++) {
+            HandResult seed = seeds.get(hands.get(i));
+            results.put(hands.get(i), seed != null && seed.simulations == simulations[i]
+                    ? seed : toHandResult(hands.get(i), wins[i], simulations[i]));
+        }
+        return results;
+    }
+    
+    /**
+     * Simulate each hand below its target count up to exactly that count, adding the outcomes
+     * to wins and simulations; returns the number of hands simulated. Hands needing the same
+     * number of extra runouts share one batch, and all batches run at once.
+     */
+    private int runToTargets(List<String> hands, long[] wins, int[] simulations, int[] targets) {
+        Map<Integer, List<Integer>> handsByCount = new HashMap<>();
+        for (int i = 0; i < hands.size(); i++) {
+            if (targets[i] > simulations[i]) {
+                handsByCount.computeIfAbsent(targets[i] - simulations[i], count -> new ArrayList<>()).add(i);
+            }
+        }
         
-        for (String normalizedHand : uniqueNormalizedHands) {
-            handIndex++;
-            
-            System.out.println("Processing hand " + handIndex + ": " + normalizedHand);
-            
-            // Simulate the hand against 1 villain
-            PLOSimulationEngine.SimulationResult result = engine.simulateAdaptive(normalizedHand, new ArrayList<>());
-            
-            HandResult handResult = new HandResult(
-                normalizedHand, 
-                result.winRate, 
-                result.standardDeviation, 
-                result.confidenceInterval, 
-                result.iterations
-            );
-            results.put(normalizedHand, handResult);
-            
-            // Calculate cumulative time
-            long currentTime = System.currentTimeMillis();
-            long cumulativeTime = currentTime - startTime;
-            long minutes = cumulativeTime / 60000;
-            long seconds = (cumulativeTime % 60000) / 1000;
-            
-            System.out.printf("Normalized Hand %d/%d %s %.1f%% %.4f %.4f CumulativeTime %dm%ds (iterations: %d)%n", 
-                            handIndex, uniqueNormalizedHands.size(), normalizedHand,
-                            result.winRate * 100, result.standardDeviation * 100, result.confidenceInterval * 100,
-                            minutes, seconds, result.iterations);
+        Map<Integer, List<CompletableFuture<PLOSimulationEngine.SimulationResult>>> futures = new HashMap<>();
+        for (Map.Entry<Integer, List<Integer>> group : handsByCount.entrySet()) {
+            List<PLOSimulationEngine.Matchup> matchups = new ArrayList<>();
+            for (int i : group.getValue()) {
+                matchups.add(new PLOSimulationEngine.Matchup(hands.get(i), new ArrayList<>()));
+            }
+            futures.put(group.getKey(), engine.simulateBatch(matchups, fixedIterations(group.getKey())));
         }
         
-        // Sort results by win rate (highest first) and write to CSV
-        try (PrintWriter writer = new PrintWriter(new FileWriter(csvFilename))) {
-            writer.println("rank,normalized_hand,win_rate,standard_deviation,confidence_interval,simulations");
-            
-            List<HandResult> sortedResults = new ArrayList<>(results.values());
-            sortedResults.sort((a, b) -> Double.compare(b.winRate, a.winRate));
-            
-            for (int i = 0; i < sortedResults.size(); i++) {
-                HandResult result = sortedResults.get(i);
-                writer.printf("%d,%s,%.6f,%.6f,%.6f,%d%n",
-                            i + 1, result.normalizedHand, 
-                            result.winRate, result.standardDeviation, result.confidenceInterval, result.simulations);
+        int simulated = 0;
+        for (Map.Entry<Integer, List<Integer>> group : handsByCount.entrySet()) {
+            List<CompletableFuture<PLOSimulationEngine.SimulationResult>> groupFutures = futures.get(group.getKey());
+            for (int k = 0; k < groupFutures.size(); k++) {
+                int i = group.getValue().get(k);
+                PLOSimulationEngine.SimulationResult result = groupFutures.get(k).join();
+                wins[i] += Math.round(result.winRate * result.iterations);
+                simulations[i] += result.iterations;
+                simulated++;
             }
-            
-            System.out.println("Ranking complete! Results written to: " + csvFilename);
-            System.out.println("Total unique hands evaluated: " + sortedResults.size());
-            
-        } catch (IOException e) {
-            System.err.println("Error writing CSV file: " + e.getMessage());
         }
+        return simulated;
+    }
+    
+    /**
+     * Targets no run can meet, so every simulation stops after exactly the given number of runouts
+     */
+    private static SimulationOptions fixedIterations(int iterations) {
+        return new SimulationOptions(Double.MIN_VALUE, Double.MIN_VALUE, iterations, SimulationOptions.NO_TIME_BUDGET);
+    }
+    
+    private static double standardDeviation(long wins, int simulations) {
+        double winRate = (double) wins / simulations;
+        return Math.sqrt(winRate * (1 - winRate) / simulations);
+    }
+    
+    private static HandResult toHandResult(String normalizedHand, long wins, int simulations) {
+        double standardDeviation = standardDeviation(wins, simulations);
+        return new HandResult(normalizedHand, (double) wins / simulations, standardDeviation,
+                CONFIDENCE_LEVEL_95 * standardDeviation, simulations);
+    }
+    
+    /**
+     * Standard normal quantile for p in [0.5, 1), by bisection on the Abramowitz-Stegun 7.1.26
+     * approximation of the tail (absolute error below 1e-7)
+     */
+    static double normalQuantile(double p) {
+        double low = 0;
+        double high = 40;
+        for (int i = 0; i < 100; i++) {
+            double mid = (low + high) / 2;
+            double t = 1 / (1 + 0.3275911 * mid / Math.sqrt(2));
+            double upperTail = 0.5 * t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))))
+                    * Math.exp(-mid * mid / 2);
+            if (1 - upperTail < p) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return (low + high) / 2;
     }
     
     public void rankTestHands(String csvFilename) {
         System.out.println("Testing PLO hole card ranking with sample hands...");
         
         // Test with a few specific hands
-        String[][] testHands = {
-            {"As", "Ad", "Ah", "Ac"}, // Quad aces
-            {"Ks", "Kh", "Kd", "Kc"}, // Quad kings
-            {"As", "Ks", "Qs", "Js"}, // AKQJ suited
-            {"As", "Ad", "Ks", "Kd"}, // AAKK double paired
-            {"2s", "3s", "4s", "5s"}  // Low suited connector
+        String[] testHands = {
+            "AsAdAhAc", // Quad aces
+            "KsKhKdKc", // Quad kings
+            "AsKsQsJs", // AKQJ suited
+            "AsAdKsKd", // AAKK double paired
+            "2s3s4s5s"  // Low suited connector
         };
         
         // Normalize all hands first to get unique combinations
         System.out.println("Normalizing test hands...");
-        Set<String> uniqueNormalizedHands = new HashSet<>();
+        Set<String> uniqueNormalizedHands = new LinkedHashSet<>();
         
-        for (String[] hand : testHands) {
-            HandNormalizer.NormalizationResult normalized = normalizer.normalizeHand(hand);
-            String normalizedHand = arrayToString(normalized.normalizedCards);
-            uniqueNormalizedHands.add(normalizedHand);
+        for (String hand : testHands) {
+            uniqueNormalizedHands.add(HandNormalizer.handClassRepresentative(HandNormalizer.handClass(hand)));
         }
         
         System.out.println(testHands.length + " pre-flop hands normalized to " + uniqueNormalizedHands.size() + " hands");
         
-        // Simulate each unique normalized hand
-        Map<String, HandResult> results = new HashMap<>();
-        long startTime = System.currentTimeMillis();
-        int handIndex = 0;
-        
-        System.out.println("Starting simulation of " + uniqueNormalizedHands.size() + " unique hands...");
-        
-        for (String normalizedHand : uniqueNormalizedHands) {
-            handIndex++;
-            
-            System.out.println("Processing hand " + handIndex + ": " + normalizedHand);
-            
-            // Simulate the hand against 1 villain
-            PLOSimulationEngine.SimulationResult result = engine.simulateAdaptive(normalizedHand, new ArrayList<>());
-            
-            HandResult handResult = new HandResult(
-                normalizedHand, 
-                result.winRate, 
-                result.standardDeviation, 
-                result.confidenceInterval, 
-                result.iterations
-            );
-            results.put(normalizedHand, handResult);
-            
-            // Calculate cumulative time
-            long currentTime = System.currentTimeMillis();
-            long cumulativeTime = currentTime - startTime;
-            long minutes = cumulativeTime / 60000;
-            long seconds = (cumulativeTime % 60000) / 1000;
-            
-            System.out.printf("Normalized Hand %d/%d %s %.1f%% %.4f %.4f CumulativeTime %dm%ds (iterations: %d)%n", 
-                            handIndex, uniqueNormalizedHands.size(), normalizedHand,
-                            result.winRate * 100, result.standardDeviation * 100, result.confidenceInterval * 100,
-                            minutes, seconds, result.iterations);
+        Map<String, HandResult> results = simulateHands(uniqueNormalizedHands, result -> { });
+        if (writeRankings(csvFilename, results.values())) {
+            System.out.println("Test ranking complete! Results written to: " + csvFilename);
         }
-        
-        // Sort results by win rate (highest first) and write to CSV
+    }
+    
+    /**
+     * Sort results by win rate (highest first) and write them to CSV; false on an I/O error
+     */
+    private boolean writeRankings(String csvFilename, Collection<HandResult> results) {
         try (PrintWriter writer = new PrintWriter(new FileWriter(csvFilename))) {
-            writer.println("rank,normalized_hand,win_rate,standard_deviation,confidence_interval,simulations");
+            writer.println(CSV_HEADER);
             
-            List<HandResult> sortedResults = new ArrayList<>(results.values());
+            List<HandResult> sortedResults = new ArrayList<>(results);
             sortedResults.sort((a, b) -> Double.compare(b.winRate, a.winRate));
             
             for (int i = 0; i < sortedResults.size(); i++) {
@@ -175,53 +495,162 @@ public class PLOHoleCardRanker {
                             i + 1, result.normalizedHand, 
                             result.winRate, result.standardDeviation, result.confidenceInterval, result.simulations);
             }
-            
-            System.out.println("Test ranking complete! Results written to: " + csvFilename);
-            System.out.println("Total hands evaluated: " + sortedResults.size());
-            
+            if (writer.checkError()) {
+                throw new IOException("write failed");
+            }
+            System.out.println("Total unique hands evaluated: " + sortedResults.size());
+            return true;
         } catch (IOException e) {
             System.err.println("Error writing CSV file: " + e.getMessage());
+            return false;
         }
     }
     
-    private List<String[]> generateAll4CardCombinations() {
-        List<String[]> allHands = new ArrayList<>();
-        String[] deck = new String[52];
+    /**
+     * Simulate every hand against 1 villain on the engine's shared pool, so cores stay busy
+     * while individual hands converge at different speeds. Results come back in completion
+     * order, and onResult and the progress listener are always called from this thread. If
+     * onResult throws, hands not yet started are skipped and the exception propagates.
+     */
+    private Map<String, HandResult> simulateHands(Collection<String> normalizedHands, Consumer<HandResult> onResult) {
+        List<String> hands = new ArrayList<>(normalizedHands);
+        List<PLOSimulationEngine.Matchup> matchups = new ArrayList<>();
+        for (String normalizedHand : hands) {
+            matchups.add(new PLOSimulationEngine.Matchup(normalizedHand, new ArrayList<>()));
+        }
         
-        int index = 0;
-        for (String rank : ranks) {
-            for (String suit : suits) {
-                deck[index++] = rank + suit;
-            }
+        System.out.println("Starting simulation of " + hands.size() + " unique hands...");
+        long startTime = System.currentTimeMillis();
+        List<CompletableFuture<PLOSimulationEngine.SimulationResult>> futures = engine.simulateBatch(matchups);
+        BlockingQueue<Integer> completed = new LinkedBlockingQueue<>();
+        for (int i = 0; i < futures.size(); i++) {
+            int index = i;
+            futures.get(i).whenComplete((result, error) -> completed.add(index));
         }
         
-        // Generate all 4-card combinations
-        generateCombinations(deck, 4, 0, new String[4], 0, allHands);
-        return allHands;
+        Map<String, HandResult> results = new HashMap<>();
+        for (int handIndex = 1; handIndex <= hands.size(); handIndex++) {
+            int index;
+            try {
+                index = completed.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while ranking hands", e);
+            }
+            String normalizedHand = hands.get(index);
+            PLOSimulationEngine.SimulationResult result = futures.get(index).join();
+            
+            HandResult handResult = new HandResult(
+                normalizedHand, 
+                result.winRate, 
+                result.standardDeviation, 
+                result.confidenceInterval, 
+                result.iterations
+            );
+            results.put(normalizedHand, handResult);
+            try {
+                onResult.accept(handResult);
+            } catch (RuntimeException e) {
+                for (CompletableFuture<PLOSimulationEngine.SimulationResult> future : futures) {
+                    future.cancel(false);
+                }
+                throw e;
+            }
+            
+            progressListener.handRanked(handIndex, hands.size(), normalizedHand, result,
+                                        System.currentTimeMillis() - startTime);
+        }
+        return results;
     }
     
-    private void generateCombinations(String[] deck, int r, int start, String[] current, 
-                                    int currentIndex, List<String[]> result) {
-        if (currentIndex == r) {
-            result.add(current.clone());
-            return;
+    /**
+     * Append-only log of finished hands, one CSV line each with full-precision values. Lines
+     * are forced to disk in batches, so a crash loses at most the last batch; a line cut short
+     * by a crash is dropped when the file is reopened.
+     */
+    private static class Checkpoint implements AutoCloseable {
+        final List<HandResult> completed = new ArrayList<>();
+        private final FileOutputStream out;
+        private final PrintWriter writer;
+        private int unsynced;
+        private long lastSync = System.currentTimeMillis();
+        
+        Checkpoint(Path file) throws IOException {
+            if (Files.exists(file)) {
+                long validLength = load(file);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(validLength);
+                }
+            }
+            boolean fresh = !Files.exists(file) || Files.size(file) == 0;
+            this.out = new FileOutputStream(file.toFile(), true);
+            this.writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (fresh) {
+                writer.println(CHECKPOINT_HEADER);
+                sync();
+            }
         }
         
-        for (int i = start; i < deck.length; i++) {
-            current[currentIndex] = deck[i];
-            generateCombinations(deck, r, i + 1, current, currentIndex + 1, result);
+        /**
+         * Read finished hands, returning the length of the file up to its last complete line
+         */
+        private long load(Path file) throws IOException {
+            String content = Files.readString(file, StandardCharsets.UTF_8);
+            int lineStart = 0;
+            int lineEnd;
+            while ((lineEnd = content.indexOf('\n', lineStart)) >= 0) {
+                String line = content.substring(lineStart, lineEnd).trim();
+                if (lineStart == 0) {
+                    if (!line.equals(CHECKPOINT_HEADER)) {
+                        throw new IOException("not a ranking checkpoint");
+                    }
+                } else if (!line.isEmpty()) {
+                    String[] fields = line.split(",");
+                    try {
+                        completed.add(new HandResult(fields[0], Double.parseDouble(fields[1]), Double.parseDouble(fields[2]),
+                                Double.parseDouble(fields[3]), Integer.parseInt(fields[4])));
+                    } catch (RuntimeException e) {
+                        throw new IOException("malformed checkpoint line: " + line, e);
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+            return content.substring(0, lineStart).getBytes(StandardCharsets.UTF_8).length;
         }
-    }
-    
-    private String arrayToString(String[] cards) {
-        StringBuilder sb = new StringBuilder();
-        for (String card : cards) {
-            sb.append(card);
+        
+        void append(HandResult result) {
+            writer.println(result.normalizedHand + "," + result.winRate + "," + result.standardDeviation + ","
+                    + result.confidenceInterval + "," + result.simulations);
+            if (++unsynced >= CHECKPOINT_BATCH || System.currentTimeMillis() - lastSync >= CHECKPOINT_SYNC_MILLIS) {
+                try {
+                    sync();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        
+        private void sync() throws IOException {
+            writer.flush();
+            if (writer.checkError()) {
+                throw new IOException("write failed");
+            }
+            out.getFD().sync();
+            unsynced = 0;
+            lastSync = System.currentTimeMillis();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            try {
+                sync();
+            } finally {
+                writer.close();
+            }
         }
-        return sb.toString();
     }
     
-    private static class HandResult {
+    static class HandResult {
         final String normalizedHand;
         final double winRate;
         final double standardDeviation;
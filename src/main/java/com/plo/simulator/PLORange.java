@@ -0,0 +1,211 @@
+package com.plo.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set of PLO starting hands compiled to one bit per 4-card combination (270,725 bits, about
+ * 33 KB). Union, intersection and blocker removal are word-wise bit operations, so a range can
+ * be filtered many thousands of times per second; parse an expression once and reuse it.
+ *
+ * Expressions use the usual PLO range notation:
+ * <ul>
+ *   <li>{@code AA**}, {@code AKQJ}, {@code AsAh**}: up to four cards, where a card is a rank, a
+ *       rank class such as {@code [AKQ]} or {@code [T-A]}, or {@code *} for any card, optionally
+ *       followed by a suit (c, d, h, s) or a suit variable (x, y, z, w: equal letters are the
+ *       same suit, different letters different suits). Fewer than four cards are padded with
+ *       {@code *}, and the hand only has to contain the listed cards, so AA** includes AAA*.</li>
+ *   <li>{@code ds}, {@code ss}, {@code r} after a pattern, or on their own: double suited,
+ *       single suited (one suited pair) or rainbow, e.g. {@code KK**ds}.</li>
+ *   <li>{@code 15%} for the strongest 15% of hands and {@code 10%-20%} for a band, by the ranking
+ *       in the hole card rankings CSV.</li>
+ *   <li>{@code ,} union, {@code :} intersection and {@code !} exclusion (left to right, binding
+ *       tighter than {@code ,}), and parentheses, e.g. {@code 10%!AA**,KK**ds}.</li>
+ * </ul>
+ */
+public final class PLORange {
+
+    private static final int NUM_WORDS = (ComboIndex.NUM_COMBOS + 63) >>> 6;
+
+    public static final PLORange NONE = new PLORange(new long[NUM_WORDS]);
+    public static final PLORange ALL;
+
+    static {
+        long[] words = new long[NUM_WORDS];
+        Arrays.fill(words, -1L);
+        words[NUM_WORDS - 1] = -1L >>> (NUM_WORDS * 64 - ComboIndex.NUM_COMBOS);
+        ALL = new PLORange(words);
+    }
+
+    private final long[] words;
+
+    private PLORange(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Compile a range expression, with percentiles taken from the bundled rankings
+     */
+    public static PLORange parse(String expression) {
+        return parse(expression, RankingPercentiles.DEFAULT_RANKINGS);
+    }
+
+    /**
+     * Compile a range expression, with percentiles taken from the given rankings CSV on the
+     * classpath. Throws IllegalArgumentException pointing at the first invalid character.
+     */
+    public static PLORange parse(String expression, String rankingsResource) {
+        return new PLORange(new PLORangeParser(expression, rankingsResource).parse());
+    }
+
+    public PLORange union(PLORange other) {
+        long[] result = new long[NUM_WORDS];
+        for (int i = 0; i < NUM_WORDS; i++) {
+            result[i] = words[i] | other.words[i];
+        }
+        return new PLORange(result);
+    }
+
+    public PLORange intersect(PLORange other) {
+        long[] result = new long[NUM_WORDS];
+        for (int i = 0; i < NUM_WORDS; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return new PLORange(result);
+    }
+
+    public PLORange minus(PLORange other) {
+        long[] result = new long[NUM_WORDS];
+        for (int i = 0; i < NUM_WORDS; i++) {
+            result[i] = words[i] & ~other.words[i];
+        }
+        return new PLORange(result);
+    }
+
+    public PLORange complement() {
+        return ALL.minus(this);
+    }
+
+    /**
+     * The hands in this range that use none of the given cards, e.g. the hero's hand and board
+     */
+    public PLORange withoutCards(String cards) {
+        return withoutCards(CardSet.parse(cards));
+    }
+
+    PLORange withoutCards(long deadCards) {
+        long[] result = words.clone();
+        long remaining = deadCards;
+        while (remaining != 0) {
+            long[] blocked = CardMasks.CONTAINING[Long.numberOfTrailingZeros(remaining)];
+            remaining &= remaining - 1;
+            for (int i = 0; i < NUM_WORDS; i++) {
+                result[i] &= ~blocked[i];
+            }
+        }
+        return new PLORange(result);
+    }
+
+    /**
+     * Whether the range holds a hand given as concatenated cards, in any order
+     */
+    public boolean contains(String hand) {
+        return contains(CardSet.parse(hand));
+    }
+
+    boolean contains(long combo) {
+        int index = ComboIndex.indexOf(combo);
+        return (words[index >>> 6] & 1L << index) != 0;
+    }
+
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Share of all 270,725 starting hands in this range, in percent
+     */
+    public double percentOfHands() {
+        return 100.0 * size() / ComboIndex.NUM_COMBOS;
+    }
+
+    /**
+     * Every hand in the range as concatenated cards, in combo index order
+     */
+    public List<String> hands() {
+        List<String> hands = new ArrayList<>(size());
+        for (int w = 0; w < NUM_WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                int index = w << 6 | Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                hands.add(CardSet.toString(ComboIndex.combo(index)));
+            }
+        }
+        return hands;
+    }
+
+    /**
+     * Uniformly weighted villain range over these hands, for the simulation engine
+     */
+    public HandRange toHandRange() {
+        Map<Long, Double> comboWeights = new LinkedHashMap<>();
+        for (int w = 0; w < NUM_WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                int index = w << 6 | Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                comboWeights.put(ComboIndex.combo(index), 1.0);
+            }
+        }
+        return HandRange.fromCombos(comboWeights);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PLORange && Arrays.equals(words, ((PLORange) o).words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PLORange{%d hands, %.2f%%}", size(), percentOfHands());
+    }
+
+    /**
+     * For each card, the hands that contain it; built on first blocker removal
+     */
+    private static final class CardMasks {
+        static final long[][] CONTAINING = new long[Card.NUM_CARDS][NUM_WORDS];
+
+        static {
+            for (int index = 0; index < ComboIndex.NUM_COMBOS; index++) {
+                long remaining = ComboIndex.combo(index);
+                while (remaining != 0) {
+                    CONTAINING[Long.numberOfTrailingZeros(remaining)][index >>> 6] |= 1L << index;
+                    remaining &= remaining - 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.plo.simulator;
+
+/**
+ * Recursive-descent compiler from the range notation described on {@link PLORange} to a bitset
+ * over {@link ComboIndex}. Each hand pattern is matched once against every combination, so
+ * parsing costs a few milliseconds; everything after that is bitset arithmetic.
+ */
+final class PLORangeParser {
+
+    private static final int NUM_WORDS = (ComboIndex.NUM_COMBOS + 63) >>> 6;
+    private static final int ALL_RANKS = CardSet.RANK_MASK;
+
+    // Suit spec of a pattern card: any suit, a fixed suit 0..3, or a suit variable
+    private static final int ANY_SUIT = -1;
+    private static final int FIRST_SUIT_VARIABLE = Card.NUM_SUITS;
+    private static final String SUIT_VARIABLES = "xyzw";
+
+    private enum Suitedness {
+        ANY, DOUBLE_SUITED, SINGLE_SUITED, RAINBOW
+    }
+
+    private final String expression;
+    private final String rankingsResource;
+    private int pos;
+
+    PLORangeParser(String expression, String rankingsResource) {
+        if (expression == null) {
+            throw new IllegalArgumentException("Range expression must not be null");
+        }
+        this.expression = expression.replaceAll("\\s+", "");
+        this.rankingsResource = rankingsResource;
+    }
+
+    long[] parse() {
+        if (expression.isEmpty()) {
+            throw new IllegalArgumentException("Range expression is empty");
+        }
+        long[] result = parseUnion();
+        if (pos < expression.length()) {
+            throw error("unexpected '" + expression.charAt(pos) + "'");
+        }
+        return result;
+    }
+
+    private long[] parseUnion() {
+        long[] result = parseIntersection();
+        while (accept(',')) {
+            long[] other = parseIntersection();
+            for (int i = 0; i < NUM_WORDS; i++) {
+                result[i] |= other[i];
+            }
+        }
+        return result;
+    }
+
+    private long[] parseIntersection() {
+        long[] result = parseFactor();
+        while (pos < expression.length()) {
+            if (accept(':')) {
+                long[] other = parseFactor();
+                for (int i = 0; i < NUM_WORDS; i++) {
+                    result[i] &= other[i];
+                }
+            } else if (accept('!')) {
+                long[] other = parseFactor();
+                for (int i = 0; i < NUM_WORDS; i++) {
+                    result[i] &= ~other[i];
+                }
+            } else {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private long[] parseFactor() {
+        if (accept('(')) {
+            long[] result = parseUnion();
+            if (!accept(')')) {
+                throw error("expected ')'");
+            }
+            return result;
+        }
+        if (pos < expression.length() && (Character.isDigit(peek()) || peek() == '.') && isPercentile()) {
+            return parsePercentile();
+        }
+        return parsePattern();
+    }
+
+    /**
+     * A number followed by '%' or '-' starts a percentile; otherwise digits are ranks
+     */
+    private boolean isPercentile() {
+        int end = pos;
+        while (end < expression.length() && (Character.isDigit(expression.charAt(end)) || expression.charAt(end) == '.')) {
+            end++;
+        }
+        return end < expression.length() && (expression.charAt(end) == '%' || expression.charAt(end) == '-');
+    }
+
+    private long[] parsePercentile() {
+        double from = 0;
+        double to = parseNumber();
+        accept('%');
+        if (accept('-')) {
+            from = to;
+            to = parseNumber();
+            if (!accept('%')) {
+                throw error("expected '%'");
+            }
+        }
+        if (to > 100 || from > to) {
+            throw error("percentiles must satisfy 0 <= from <= to <= 100, got " + from + "-" + to);
+        }
+        long[] result = new long[NUM_WORDS];
+        RankingPercentiles.forRankings(rankingsResource).addBetween(from, to, result);
+        return result;
+    }
+
+    private double parseNumber() {
+        int start = pos;
+        while (pos < expression.length() && (Character.isDigit(peek()) || peek() == '.')) {
+            pos++;
+        }
+        try {
+            return Double.parseDouble(expression.substring(start, pos));
+        } catch (NumberFormatException e) {
+            pos = start;
+            throw error("expected a percentage");
+        }
+    }
+
+    private long[] parsePattern() {
+        int start = pos;
+        int[] rankMasks = {ALL_RANKS, ALL_RANKS, ALL_RANKS, ALL_RANKS};
+        int[] suits = {ANY_SUIT, ANY_SUIT, ANY_SUIT, ANY_SUIT};
+        int numCards = 0;
+        Suitedness suitedness = Suitedness.ANY;
+        while (pos < expression.length()) {
+            suitedness = parseSuitedness();
+            if (suitedness != Suitedness.ANY) {
+                break;
+            }
+            int rankMask = parseRanks();
+            if (rankMask == 0) {
+                break;
+            }
+            if (numCards == 4) {
+                throw error("a hand has at most four cards");
+            }
+            rankMasks[numCards] = rankMask;
+            suits[numCards] = parseSuit();
+            numCards++;
+        }
+        if (pos == start) {
+            throw error(pos < expression.length() ? "unexpected '" + peek() + "'" : "expected a hand pattern");
+        }
+
+        long[] result = new long[NUM_WORDS];
+        int[] cards = new int[4];
+        for (int index = 0; index < ComboIndex.NUM_COMBOS; index++) {
+            long combo = ComboIndex.combo(index);
+            if (!matchesSuitedness(combo, suitedness)) {
+                continue;
+            }
+            long remaining = combo;
+            for (int c = 0; c < 4; c++) {
+                cards[c] = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+            }
+            if (matches(rankMasks, suits, 0, cards, 0, new int[SUIT_VARIABLES.length()], 0)) {
+                result[index >>> 6] |= 1L << index;
+            }
+        }
+        return result;
+    }
+
+    private Suitedness parseSuitedness() {
+        if (expression.startsWith("ds", pos)) {
+            pos += 2;
+            return Suitedness.DOUBLE_SUITED;
+        }
+        if (expression.startsWith("ss", pos)) {
+            pos += 2;
+            return Suitedness.SINGLE_SUITED;
+        }
+        if (accept('r')) {
+            return Suitedness.RAINBOW;
+        }
+        return Suitedness.ANY;
+    }
+
+    /**
+     * Rank mask of the next pattern card: a rank, '*' or a bracketed class; 0 if none follows
+     */
+    private int parseRanks() {
+        if (accept('*')) {
+            return ALL_RANKS;
+        }
+        if (accept('[')) {
+            int mask = 0;
+            while (!accept(']')) {
+                int low = parseRank();
+                int high = low;
+                if (accept('-')) {
+                    high = parseRank();
+                }
+                for (int rank = Math.min(low, high); rank <= Math.max(low, high); rank++) {
+                    mask |= 1 << rank;
+                }
+            }
+            if (mask == 0) {
+                throw error("empty rank class");
+            }
+            return mask;
+        }
+        if (pos < expression.length() && Card.rankOf(peek()) >= 0) {
+            return 1 << Card.rankOf(expression.charAt(pos++));
+        }
+        return 0;
+    }
+
+    private int parseRank() {
+        if (pos >= expression.length() || Card.rankOf(peek()) < 0) {
+            throw error("expected a rank");
+        }
+        return Card.rankOf(expression.charAt(pos++));
+    }
+
+    private int parseSuit() {
+        // "ds"/"ss" after a card is a qualifier, never a diamond or spade followed by junk
+        if (pos >= expression.length() || expression.startsWith("ds", pos) || expression.startsWith("ss", pos)) {
+            return ANY_SUIT;
+        }
+        int suit = Card.suitOf(peek());
+        if (suit >= 0) {
+            pos++;
+            return suit;
+        }
+        int variable = SUIT_VARIABLES.indexOf(peek());
+        if (variable >= 0) {
+            pos++;
+            return FIRST_SUIT_VARIABLE + variable;
+        }
+        return ANY_SUIT;
+    }
+
+    /**
+     * Whether pattern cards from {@code next} on can each take a distinct unused card, binding
+     * suit variables to distinct suits on the way
+     */
+    private static boolean matches(int[] rankMasks, int[] suits, int next, int[] cards, int used,
+                                   int[] boundSuits, int boundVariables) {
+        if (next == 4) {
+            return true;
+        }
+        for (int c = 0; c < 4; c++) {
+            if ((used & 1 << c) != 0 || (rankMasks[next] & 1 << Card.rank(cards[c])) == 0) {
+                continue;
+            }
+            int suit = Card.suit(cards[c]);
+            int spec = suits[next];
+            if (spec == ANY_SUIT || spec == suit) {
+                if (matches(rankMasks, suits, next + 1, cards, used | 1 << c, boundSuits, boundVariables)) {
+                    return true;
+                }
+            } else if (spec >= FIRST_SUIT_VARIABLE) {
+                int variable = spec - FIRST_SUIT_VARIABLE;
+                if ((boundVariables & 1 << variable) != 0) {
+                    if (boundSuits[variable] == suit
+                            && matches(rankMasks, suits, next + 1, cards, used | 1 << c, boundSuits, boundVariables)) {
+                        return true;
+                    }
+                } else if (!suitTaken(boundSuits, boundVariables, suit)) {
+                    boundSuits[variable] = suit;
+                    if (matches(rankMasks, suits, next + 1, cards, used | 1 << c, boundSuits, boundVariables | 1 << variable)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean suitTaken(int[] boundSuits, int boundVariables, int suit) {
+        for (int variable = 0; variable < boundSuits.length; variable++) {
+            if ((boundVariables & 1 << variable) != 0 && boundSuits[variable] == suit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesSuitedness(long combo, Suitedness suitedness) {
+        if (suitedness == Suitedness.ANY) {
+            return true;
+        }
+        int pairs = 0;
+        int singles = 0;
+        for (int suit = 0; suit < Card.NUM_SUITS; suit++) {
+            int count = Integer.bitCount(CardSet.suitRanks(combo, suit));
+            if (count == 2) {
+                pairs++;
+            } else if (count == 1) {
+                singles++;
+            }
+        }
+        switch (suitedness) {
+            case DOUBLE_SUITED:
+                return pairs == 2;
+            case SINGLE_SUITED:
+                return pairs == 1 && singles == 2;
+            default:
+                return singles == 4;
+        }
+    }
+
+    private boolean accept(char c) {
+        if (pos < expression.length() && expression.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private char peek() {
+        return expression.charAt(pos);
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid range '" + expression + "' at position " + pos + ": " + message);
+    }
+}
@@ -1,319 +1,1772 @@
 package com.plo.simulator;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 public class PLOSimulationEngine {
     
-    private final PokerHandCache handCache;
-    private final Set<String> fullDeck;
+    private final OmahaEvaluator omahaEvaluator;
+    private final int[] fullDeck;
+    private final SimulationOptions options;
+    private final SimulationScheduler scheduler;
     
     // Statistical constants
     private static final double CONFIDENCE_LEVEL_95 = 1.96;
-    private static final double DEFAULT_STOPPING_SD = 0.005; // 0.5% standard deviation threshold
-    private static final double DEFAULT_STOPPING_CI = 0.01; // 1% confidence interval threshold
     private static final int MIN_ITERATIONS = 100; // Minimum iterations before allowing early stopping
-    private static final int SIMULATION_BATCH_SIZE = 100;
+    private static final int SIMULATION_BATCH_SIZE = 100; // Initial batch size; workers grow it with throughput
+    private static final int MAX_BATCH_SIZE = 100000;
+    private static final long TARGET_BATCH_NANOS = 1_000_000; // Aim for ~1 ms between counter updates
+    private static final long PROGRESS_INTERVAL_NANOS = 20_000_000; // Interim snapshots at most every 20 ms
+    private static final long REJECTED_RETRY_MILLIS = 50; // Batch feeding retries a saturated scheduler this often
+    
+    // Table limits: 11 hands of 4 plus a board use 49 of the 52 cards
+    private static final int MAX_SEATS = 11;
+    // A split pot pays each of k winners SHARE_UNITS / k, which is exact for every k up to MAX_SEATS
+    private static final long SHARE_UNITS = 27720; // lcm(1..11)
+    
+    // Variance-reduction settings: replicated strategies need this many units before their
+    // variance estimate is trusted, quasi-random units hold QMC_BLOCK_SIZE points each, and one
+    // stratified round allocates STRATIFIED_ROUND samples across the flop strata
+    private static final int MIN_UNITS = 30;
+    private static final int QMC_BLOCK_SIZE = 64;
+    private static final int STRATIFIED_ROUND = 500;
+    // Range villains whose draws overlap are redrawn together; this many overlaps in a row means
+    // the ranges can hardly be dealt at the same time
+    private static final int MAX_RANGE_DRAWS = 1000;
+    // Kronecker sequence generators: fractional parts of square roots of primes, one per dealt card
+    private static final double[] KRONECKER_ALPHAS = kroneckerAlphas(2, 3, 5, 7, 11, 13, 17, 19, 23);
         
         public PLOSimulationEngine() {
-            this.handCache = new PokerHandCache();
+            this(new PokerHandCache());
+        }
+        
+        /**
+         * Create an engine on a specific 5-card backend, e.g. BitmaskHandEvaluator where the
+         * rank table does not fit in memory. All backends rank hands identically.
+         */
+        public PLOSimulationEngine(HandEvaluator handEvaluator) {
+            this(handEvaluator, SimulationOptions.DEFAULT);
+        }
+        
+        /**
+         * Create an engine whose simulations use the given precision policy unless a call passes its own
+         */
+        public PLOSimulationEngine(HandEvaluator handEvaluator, SimulationOptions options) {
+            this(handEvaluator, options, SimulationScheduler.defaultScheduler());
+        }
+        
+        /**
+         * Create an engine that runs its simulations on the given scheduler instead of the
+         * JVM-wide default, e.g. to give a service its own thread count and queue bound
+         */
+        public PLOSimulationEngine(HandEvaluator handEvaluator, SimulationOptions options, SimulationScheduler scheduler) {
+            this.omahaEvaluator = new OmahaEvaluator(handEvaluator);
             this.fullDeck = initializeFullDeck();
+            this.options = options;
+            this.scheduler = scheduler;
         }
         
-        private Set<String> initializeFullDeck() {
-            Set<String> deck = new HashSet<>();
-            String[] ranks = {"2", "3", "4", "5", "6", "7", "8", "9", "T", "J", "Q", "K", "A"};
-            String[] suits = {"c", "d", "h", "s"};
-            
-            for (String suit : suits) {
-                for (String rank : ranks) {
-                    deck.add(rank + suit);
-                }
+        private int[] initializeFullDeck() {
+            int[] deck = new int[Card.NUM_CARDS];
+            for (int card = 0; card < Card.NUM_CARDS; card++) {
+                deck[card] = card;
             }
             return deck;
         }
         
+        /**
+         * Why a simulation returned: only CONVERGED and EXACT guarantee the precision targets
+         */
+        public enum StopReason {
+            CONVERGED,
+            EXACT,
+            MAX_ITERATIONS,
+            DEADLINE,
+            CANCELLED
+        }
+        
         public static class SimulationResult {
             public final double winRate;
             public final double standardDeviation;
             public final double confidenceInterval;
             public final int iterations;
+            public final StopReason stopReason;
             
             public SimulationResult(double winRate, double standardDeviation, double confidenceInterval, int iterations) {
+                this(winRate, standardDeviation, confidenceInterval, iterations, StopReason.CONVERGED);
+            }
+            
+            public SimulationResult(double winRate, double standardDeviation, double confidenceInterval, int iterations,
+                                    StopReason stopReason) {
                 this.winRate = winRate;
                 this.standardDeviation = standardDeviation;
                 this.confidenceInterval = confidenceInterval;
                 this.iterations = iterations;
+                this.stopReason = stopReason;
+            }
+        }
+        
+        /**
+         * Exact showdown counts over every possible board. A tie means the hero shares the best
+         * hand with at least one villain; a loss means some villain has a strictly better hand.
+         */
+        public static class ExactResult {
+            public final long wins;
+            public final long ties;
+            public final long losses;
+            public final long boards;
+            
+            public ExactResult(long wins, long ties, long losses) {
+                this.wins = wins;
+                this.ties = ties;
+                this.losses = losses;
+                this.boards = wins + ties + losses;
+            }
+            
+            public double winRate() {
+                return (double) wins / boards;
+            }
+            
+            public double tieRate() {
+                return (double) ties / boards;
+            }
+            
+            public double lossRate() {
+                return (double) losses / boards;
+            }
+        }
+        
+        /**
+         * Per-seat showdown results from one pass over the runouts. Seats are ordered hero, the
+         * known villains in input order, the range villains in input order, then the random
+         * villains. Equity counts a pot split k ways as 1/k, so the equities of all seats sum to 1.
+         */
+        public static class EquityResult {
+            public final double[] equity;
+            public final double[] winRate;
+            public final double[] tieRate;
+            public final double[] standardDeviation;
+            public final int iterations;
+            
+            public EquityResult(double[] equity, double[] winRate, double[] tieRate, double[] standardDeviation, int iterations) {
+                this.equity = equity;
+                this.winRate = winRate;
+                this.tieRate = tieRate;
+                this.standardDeviation = standardDeviation;
+                this.iterations = iterations;
             }
         }
         
+        /**
+         * How runouts are sampled by simulateAdaptive. Every strategy is unbiased and reports a
+         * standard deviation from its own variance estimator, so the stopping criteria mean the
+         * same thing whichever is used.
+         */
+        public enum SamplingStrategy {
+            /** Independent uniform runouts; Bernoulli variance */
+            PLAIN,
+            /**
+             * Runouts in pairs: the second deals the mirrored deck position of every card the
+             * first dealt, trading high cards for low ones. Variance from the spread of pair means.
+             */
+            ANTITHETIC,
+            /**
+             * Flops drawn per texture stratum (suit pattern, pairing, high card) with allocation
+             * proportional to the exact stratum probabilities; turn, river and any random villain
+             * are then dealt uniformly. Variance is the weighted sum of within-stratum variances.
+             * Once the flop is known there is nothing to stratify, and runouts are sampled as PLAIN.
+             */
+            STRATIFIED,
+            /**
+             * Randomized quasi-Monte Carlo: blocks of QMC_BLOCK_SIZE Kronecker-sequence points
+             * mapped to deals, each block with an independent random shift. Variance from the
+             * spread of block means.
+             */
+            QUASI_RANDOM
+        }
+        
+        /**
+         * Estimate the hero's win rate. When every villain hand is known and the number of boards
+         * left to deal is no larger than the number of samples the stopping criteria are expected
+         * to need, all boards are enumerated instead and the result is exact (zero deviation).
+         */
         public SimulationResult simulateAdaptive(String heroHand, List<String> villainHands) {
-            // Use parallel processing with number of CPU cores
-            int numThreads = Runtime.getRuntime().availableProcessors();
+            return simulateAdaptive(heroHand, villainHands, SamplingStrategy.PLAIN);
+        }
+        
+        /**
+         * Estimate the hero's win rate using the given sampling strategy when enumeration is not cheaper
+         */
+        public SimulationResult simulateAdaptive(String heroHand, List<String> villainHands, SamplingStrategy strategy) {
+            return simulateAdaptive(heroHand, villainHands, strategy, options);
+        }
+        
+        /**
+         * Estimate the hero's win rate under a per-call precision policy
+         */
+        public SimulationResult simulateAdaptive(String heroHand, List<String> villainHands, SamplingStrategy strategy,
+                                                 SimulationOptions options) {
+            return simulateAdaptive(heroHand, villainHands, strategy, options, null);
+        }
+        
+        /**
+         * Anytime variant: runs until convergence or until the token is cancelled or expires,
+         * whichever comes first. On cancellation every worker stops at its next batch boundary
+         * (about a millisecond) and the estimate so far is returned with its actual SD, CI and
+         * iteration count; stopReason tells the caller whether the targets were met.
+         */
+        public SimulationResult simulateAdaptive(String heroHand, List<String> villainHands, CancellationToken token) {
+            return simulateAdaptive(heroHand, villainHands, SamplingStrategy.PLAIN, options, token);
+        }
+        
+        public SimulationResult simulateAdaptive(String heroHand, List<String> villainHands, SamplingStrategy strategy,
+                                                 SimulationOptions options, CancellationToken token) {
+            return simulateAdaptive(heroHand, villainHands, strategy, options, token, null);
+        }
+        
+        /**
+         * Anytime variant that also reports interim estimates: progress receives a snapshot (with
+         * a null stopReason) at most every PROGRESS_INTERVAL_NANOS. It is called on a worker
+         * thread, which waits for it, so it must return quickly.
+         *
+         * Every variant runs on the engine's scheduler at the priority in options, and throws
+         * RejectedExecutionException if the scheduler's queue is full.
+         */
+        public SimulationResult simulateAdaptive(String heroHand, List<String> villainHands, SamplingStrategy strategy,
+                                                 SimulationOptions options, CancellationToken token,
+                                                 Consumer<? super SimulationResult> progress) {
+            return await(startAdaptive(createWinRateSetup(heroHand, villainHands, null, null, null), strategy, options, token,
+                    progress));
+        }
+        
+        /**
+         * Estimate the hero's win rate on a later street. board holds the known community cards
+         * (3 on the flop, 4 on the turn, 5 on the river) and deadCards any cards known to be out
+         * of play, both concatenated like "Ah7d2c"; either may be null or empty. Only the rest of
+         * the board is dealt, so with every villain hand known a flop leaves under a thousand
+         * runouts and a turn a few dozen, and those are enumerated exactly.
+         */
+        public SimulationResult simulateAdaptive(String heroHand, List<String> villainHands, String board, String deadCards) {
+            return simulateAdaptive(heroHand, villainHands, board, deadCards, SamplingStrategy.PLAIN, options, null);
+        }
+        
+        public SimulationResult simulateAdaptive(String heroHand, List<String> villainHands, String board, String deadCards,
+                                                 SamplingStrategy strategy, SimulationOptions options, CancellationToken token) {
+            return await(startAdaptive(createWinRateSetup(heroHand, villainHands, null, board, deadCards), strategy, options, token,
+                    null));
+        }
+        
+        /**
+         * Estimate the hero's win rate against villains holding hands from weighted ranges, next
+         * to any known villain hands, with optional board and dead cards as above. Every runout
+         * draws each range villain's hand in proportion to its weight from the combos that no
+         * known card blocks; if two range villains draw overlapping hands, both are drawn again.
+         * Range villains are always sampled, with the PLAIN strategy.
+         */
+        public SimulationResult simulateAdaptive(String heroHand, List<String> villainHands, List<HandRange> villainRanges,
+                                                 String board, String deadCards) {
+            return simulateAdaptive(heroHand, villainHands, villainRanges, board, deadCards, options, null);
+        }
+        
+        public SimulationResult simulateAdaptive(String heroHand, List<String> villainHands, List<HandRange> villainRanges,
+                                                 String board, String deadCards, SimulationOptions options,
+                                                 CancellationToken token) {
+            SimulationSetup setup = createWinRateSetup(heroHand, villainHands, villainRanges, board, deadCards);
+            return await(startAdaptive(setup, SamplingStrategy.PLAIN, options, token, null));
+        }
+        
+        /**
+         * Enumerate on the spot when that is cheaper, otherwise submit a sampling run to the
+         * scheduler. Rejection is thrown here, not through the future. A null token means the
+         * caller cannot cancel the run, which leaves enumeration free to run to completion.
+         */
+        private CompletableFuture<SimulationResult> startAdaptive(SimulationSetup setup, SamplingStrategy strategy,
+                                                                  SimulationOptions options, CancellationToken token,
+                                                                  Consumer<? super SimulationResult> progress) {
+            if (shouldEnumerate(setup, options, token)) {
+                return enumerateExact(setup, options.priority).thenApply(
+                        exact -> new SimulationResult(exact.winRate(), 0, 0, (int) exact.boards, StopReason.EXACT));
+            }
+            
+            SimulationRun<SimulationResult> run = createWinRateRun(setup, strategy, scheduler.threadCount(), options,
+                    token == null ? new CancellationToken() : token);
+            run.progress = progress;
+            return scheduler.submit(run, options.priority);
+        }
+        
+        /**
+         * Stream a simulation as it converges. Each subscription starts its own run and receives
+         * interim snapshots (null stopReason) followed by the final result, then onComplete.
+         * Snapshots are offered without blocking and dropped if the subscriber's buffer is full,
+         * so a slow subscriber never stalls the workers; the final result is always delivered.
+         * Cancelling the subscription cancels the run. Invalid hands are rejected here, before
+         * anything is subscribed.
+         */
+        public Flow.Publisher<SimulationResult> simulateAdaptiveStreaming(String heroHand, List<String> villainHands,
+                                                                          SamplingStrategy strategy, SimulationOptions options) {
+            SimulationSetup setup = createWinRateSetup(heroHand, villainHands, null, null, null);
+            return subscriber -> {
+                CancellationToken token = new CancellationToken();
+                SubmissionPublisher<SimulationResult> publisher = new SubmissionPublisher<>(StreamingExecutor.INSTANCE,
+                        Flow.defaultBufferSize());
+                publisher.subscribe(new CancellingSubscriber<>(subscriber, token));
+                CompletableFuture<SimulationResult> run;
+                try {
+                    run = startAdaptive(setup, strategy, options, token,
+                            snapshot -> publisher.offer(snapshot, (lagging, dropped) -> false));
+                } catch (RuntimeException e) {
+                    run = CompletableFuture.failedFuture(e);
+                }
+                // submit blocks while the subscriber's buffer is full, so the final result is
+                // handed over on a delivery thread rather than the scheduler thread that finished
+                run.whenCompleteAsync((result, error) -> {
+                    if (error != null) {
+                        publisher.closeExceptionally(error);
+                    } else {
+                        publisher.submit(result);
+                        publisher.close();
+                    }
+                }, StreamingExecutor.INSTANCE);
+            };
+        }
+        
+        /**
+         * Daemon threads that deliver streamed results to subscribers, created as needed, so
+         * neither slow subscribers nor delivery touch the scheduler's threads or the common pool
+         */
+        private static final class StreamingExecutor {
+            static final ExecutorService INSTANCE = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "plo-streaming");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        
+        /**
+         * One hero hand against known villain hands (or one random villain if none), for simulateBatch
+         */
+        public static class Matchup {
+            public final String heroHand;
+            public final List<String> villainHands;
+            
+            public Matchup(String heroHand, List<String> villainHands) {
+                this.heroHand = heroHand;
+                this.villainHands = villainHands;
+            }
+        }
+        
+        /**
+         * Simulate many matchups at BATCH priority, so they fill the cores left over by
+         * interactive requests. Matchups are fed to the scheduler a few at a time, each as the
+         * previous ones finish, so a large ranking run never floods the scheduler's queue, and
+         * the scheduler's threads move straight on to the next matchup when one converges.
+         * Returns immediately with one future per matchup, in input order, each completed as
+         * soon as that matchup finishes; an invalid matchup completes exceptionally without
+         * affecting the others. When the scheduler is saturated by other work, feeding pauses
+         * and resumes as capacity frees up instead of failing the rest of the batch.
+         * Cancelling a future before its matchup is submitted skips that matchup.
+         */
+        public List<CompletableFuture<SimulationResult>> simulateBatch(List<Matchup> matchups) {
+            return simulateBatch(matchups, options);
+        }
+        
+        /**
+         * simulateBatch under a per-call precision policy; the batch still runs at BATCH priority
+         */
+        public List<CompletableFuture<SimulationResult>> simulateBatch(List<Matchup> matchups, SimulationOptions options) {
+            BatchFeeder feeder = new BatchFeeder(matchups, options.withPriority(SimulationScheduler.Priority.BATCH),
+                    2 * scheduler.threadCount());
+            feeder.fill();
+            return feeder.results;
+        }
+        
+        /**
+         * Keeps a fixed number of a batch's matchups submitted: each completion submits the next.
+         * A matchup the scheduler rejects goes back in line and feeding stops until one of the
+         * batch's runs completes, or, with none running, until REJECTED_RETRY_MILLIS have passed.
+         */
+        private class BatchFeeder {
+            final List<Matchup> matchups;
+            final List<CompletableFuture<SimulationResult>> results = new ArrayList<>();
+            final SimulationOptions options;
+            final int width;
+            final AtomicInteger nextMatchup = new AtomicInteger();
+            final Queue<Integer> rejected = new ConcurrentLinkedQueue<>();
+            final AtomicInteger inFlight = new AtomicInteger();
+            
+            BatchFeeder(List<Matchup> matchups, SimulationOptions options, int width) {
+                this.matchups = new ArrayList<>(matchups);
+                this.options = options;
+                this.width = width;
+                for (int i = 0; i < matchups.size(); i++) {
+                    results.add(new CompletableFuture<>());
+                }
+            }
             
-            if (numThreads <= 1) {
-                return simulateAdaptiveSingleThread(heroHand, villainHands);
+            /**
+             * Submit pending matchups until width of them are running on the scheduler, the
+             * scheduler rejects one, or none remain. Invalid and enumerated matchups complete on
+             * the spot without taking a slot.
+             */
+            void fill() {
+                while (inFlight.incrementAndGet() <= width) {
+                    Integer retry = rejected.poll();
+                    int index = retry != null ? retry : nextMatchup.getAndIncrement();
+                    if (index >= matchups.size()) {
+                        inFlight.decrementAndGet();
+                        return;
+                    }
+                    CompletableFuture<SimulationResult> result = results.get(index);
+                    if (result.isDone()) {
+                        inFlight.decrementAndGet();
+                        continue;
+                    }
+                    CompletableFuture<SimulationResult> run;
+                    try {
+                        SimulationSetup setup = createWinRateSetup(matchups.get(index).heroHand, matchups.get(index).villainHands,
+                                null, null, null);
+                        run = startAdaptive(setup, SamplingStrategy.PLAIN, options, null, null);
+                    } catch (RejectedExecutionException e) {
+                        rejected.add(index);
+                        if (inFlight.decrementAndGet() == 0) {
+                            // Nothing of ours will complete to resume feeding; fill only submits, so it
+                            // can run on the timer thread itself rather than on a pool
+                            CompletableFuture.delayedExecutor(REJECTED_RETRY_MILLIS, TimeUnit.MILLISECONDS, Runnable::run)
+                                    .execute(this::fill);
+                        }
+                        return;
+                    } catch (RuntimeException e) {
+                        result.completeExceptionally(e);
+                        inFlight.decrementAndGet();
+                        continue;
+                    }
+                    if (run.isDone()) {
+                        inFlight.decrementAndGet();
+                        forward(run, result);
+                        continue;
+                    }
+                    run.whenComplete((simulated, error) -> {
+                        forward(run, result);
+                        inFlight.decrementAndGet();
+                        fill();
+                    });
+                }
+                inFlight.decrementAndGet();
             }
             
-            return simulateAdaptiveParallel(heroHand, villainHands, numThreads);
+            private void forward(CompletableFuture<SimulationResult> run, CompletableFuture<SimulationResult> result) {
+                try {
+                    result.complete(run.join());
+                } catch (CompletionException e) {
+                    result.completeExceptionally(e.getCause());
+                } catch (CancellationException e) {
+                    result.completeExceptionally(e);
+                }
+            }
         }
         
-        private List<String> validateAndCreateDeck(String heroHand, List<String> villainHands) {
+        /**
+         * Forwards everything to the subscriber, and cancels the run when it cancels its subscription
+         */
+        private static class CancellingSubscriber<T> implements Flow.Subscriber<T> {
+            private final Flow.Subscriber<? super T> subscriber;
+            private final CancellationToken token;
+            
+            CancellingSubscriber(Flow.Subscriber<? super T> subscriber, CancellationToken token) {
+                this.subscriber = subscriber;
+                this.token = token;
+            }
+            
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                        subscription.request(n);
+                    }
+                    
+                    @Override
+                    public void cancel() {
+                        token.cancel();
+                        subscription.cancel();
+                    }
+                });
+            }
+            
+            @Override
+            public void onNext(T item) {
+                subscriber.onNext(item);
+            }
+            
+            @Override
+            public void onError(Throwable throwable) {
+                subscriber.onError(throwable);
+            }
+            
+            @Override
+            public void onComplete() {
+                subscriber.onComplete();
+            }
+        }
+        
+        private SimulationSetup createWinRateSetup(String heroHand, List<String> villainHands, List<HandRange> villainRanges,
+                                                   String board, String deadCards) {
+            // With no villain hands or ranges given, the hero plays one random villain
+            boolean randomVillain = (villainHands == null || villainHands.isEmpty())
+                    && (villainRanges == null || villainRanges.isEmpty());
+            return validateAndCreateSetup(heroHand, villainHands, villainRanges, randomVillain ? 1 : 0, board, deadCards);
+        }
+        
+        private SimulationRun<SimulationResult> createWinRateRun(SimulationSetup setup, SamplingStrategy strategy, int numWorkers,
+                                                                 SimulationOptions options, CancellationToken token) {
+            if (setup.rangeSamplers.length > 0) {
+                // Range draws change the live deck every runout, which the fixed-deck strategies assume away
+                return new WinRateRun(setup, numWorkers, options, token);
+            }
+            switch (strategy) {
+                case ANTITHETIC:
+                    return new AntitheticRun(setup, numWorkers, options, token);
+                case STRATIFIED:
+                    if (setup.board.length > 0) {
+                        return new WinRateRun(setup, numWorkers, options, token);
+                    }
+                    return new StratifiedRun(setup, numWorkers, options, token);
+                case QUASI_RANDOM:
+                    return new QuasiRandomRun(setup, numWorkers, options, token);
+                default:
+                    return new WinRateRun(setup, numWorkers, options, token);
+            }
+        }
+        
+        /**
+         * Estimate every seat's equity, split pots included, from one pass over the runouts.
+         * Known villain hands may be combined with any number of random villains, which are
+         * dealt fresh each runout. Uses exact enumeration under the same policy as
+         * simulateAdaptive, and otherwise samples until every seat meets the stopping criteria.
+         */
+        public EquityResult simulateEquity(String heroHand, List<String> villainHands, int numRandomVillains) {
+            return simulateEquity(heroHand, villainHands, numRandomVillains, options);
+        }
+        
+        /**
+         * Estimate every seat's equity under a per-call precision policy
+         */
+        public EquityResult simulateEquity(String heroHand, List<String> villainHands, int numRandomVillains,
+                                           SimulationOptions options) {
+            return simulateEquity(heroHand, villainHands, numRandomVillains, null, null, options);
+        }
+        
+        /**
+         * Estimate every seat's equity from a later street, with known board and dead cards as in
+         * simulateAdaptive
+         */
+        public EquityResult simulateEquity(String heroHand, List<String> villainHands, int numRandomVillains,
+                                           String board, String deadCards) {
+            return simulateEquity(heroHand, villainHands, numRandomVillains, board, deadCards, options);
+        }
+        
+        public EquityResult simulateEquity(String heroHand, List<String> villainHands, int numRandomVillains,
+                                           String board, String deadCards, SimulationOptions options) {
+            return simulateEquity(heroHand, villainHands, null, numRandomVillains, board, deadCards, options);
+        }
+        
+        /**
+         * Estimate every seat's equity with range villains (see simulateAdaptive) seated after the
+         * known villains and before the random ones
+         */
+        public EquityResult simulateEquity(String heroHand, List<String> villainHands, List<HandRange> villainRanges,
+                                           int numRandomVillains, String board, String deadCards, SimulationOptions options) {
+            SimulationSetup setup = validateAndCreateSetup(heroHand, villainHands, villainRanges, numRandomVillains, board,
+                    deadCards);
+            
+            if (shouldEnumerate(setup, options, null)) {
+                long[] counts = await(enumerateBoards(setup, options.priority));
+                long boards = countBoards(setup);
+                return toEquityResult(counts, setup.numSeats(), boards, false);
+            }
+            
+            EquityRun run = new EquityRun(setup, scheduler.threadCount(), options, new CancellationToken());
+            return await(scheduler.submit(run, options.priority));
+        }
+        
+        /**
+         * Evaluate every board that can be dealt from the remaining deck. Requires all villain
+         * hands; the boards are enumerated on the engine's scheduler like any other simulation.
+         */
+        public ExactResult enumerateExact(String heroHand, List<String> villainHands) {
+            return enumerateExact(heroHand, villainHands, null, null);
+        }
+        
+        /**
+         * Evaluate every runout that completes a known board, with dead cards out of play
+         */
+        public ExactResult enumerateExact(String heroHand, List<String> villainHands, String board, String deadCards) {
+            if (villainHands == null || villainHands.isEmpty()) {
+                throw new IllegalArgumentException("Exact enumeration requires at least one known villain hand");
+            }
+            return await(enumerateExact(validateAndCreateSetup(heroHand, villainHands, null, 0, board, deadCards),
+                    options.priority));
+        }
+        
+        private CompletableFuture<ExactResult> enumerateExact(SimulationSetup setup, SimulationScheduler.Priority priority) {
+            return enumerateBoards(setup, priority).thenApply(counts -> {
+                long wins = counts[0];
+                long ties = counts[setup.numSeats()];
+                return new ExactResult(wins, ties, countBoards(setup) - wins - ties);
+            });
+        }
+        
+        /**
+         * Showdown counters (see recordShowdown) summed over every board. Never blocks, since
+         * it may be called on a scheduler thread; rejection is thrown here, not through the future.
+         */
+        private CompletableFuture<long[]> enumerateBoards(SimulationSetup setup, SimulationScheduler.Priority priority) {
+            if (setup.cardsToDeal() == 0) {
+                // River: the known board is the only one
+                long[] counts = new long[3 * setup.numSeats()];
+                int[] seatRanks = new int[setup.numSeats()];
+                evaluateSeats(setup, new OmahaEvaluator.Board().set(setup.board), seatRanks);
+                recordShowdown(seatRanks, counts);
+                return CompletableFuture.completedFuture(counts);
+            }
+            return scheduler.submit(new BoardEnumeration(setup, scheduler.threadCount()), priority);
+        }
+        
+        /**
+         * Enumeration cannot stop early, so under a time budget or a caller's cancellation token
+         * (null when the caller has none) it is only chosen for board counts that the default
+         * precision policy would sample anyway (milliseconds of work)
+         */
+        private boolean shouldEnumerate(SimulationSetup setup, SimulationOptions options, CancellationToken token) {
+            if (setup.numRandomVillains > 0 || setup.rangeSamplers.length > 0) {
+                return false;
+            }
+            long samplingIterations = expectedSamplingIterations(options);
+            if (options.timeBudgetMillis != SimulationOptions.NO_TIME_BUDGET || token != null) {
+                samplingIterations = Math.min(samplingIterations, expectedSamplingIterations(SimulationOptions.DEFAULT));
+            }
+            return countBoards(setup) <= samplingIterations;
+        }
+        
+        private long countBoards(SimulationSetup setup) {
+            long boards = 1;
+            for (int k = 0; k < setup.cardsToDeal(); k++) {
+                boards = boards * (setup.deck.length - k) / (k + 1);
+            }
+            return boards;
+        }
+        
+        /**
+         * Samples needed to meet both precision targets in the worst case (win rate 0.5), or the
+         * iteration cap if lower. A sampled iteration costs at least as much as an enumerated
+         * board, so enumeration wins whenever there are no more boards than this.
+         */
+        private long expectedSamplingIterations(SimulationOptions options) {
+            double bySd = 0.25 / (options.targetStandardDeviation * options.targetStandardDeviation);
+            double byCi = 0.25 * Math.pow(CONFIDENCE_LEVEL_95 / options.targetConfidenceInterval, 2);
+            return Math.min(options.maxIterations, (long) Math.ceil(Math.max(bySd, byCi)));
+        }
+        
+        /**
+         * Showdown counters over every board, as a scheduler job so enumeration shares the cores
+         * with other simulations under the same priorities and admission control. Each slice
+         * takes the boards starting with one choice of the first two dealt cards (a few thousand
+         * boards preflop, about a millisecond, like a sampling batch); with three or fewer cards
+         * to deal there is a single slice. Every worker thread adds into its own counters.
+         */
+        private class BoardEnumeration implements SimulationScheduler.Job<long[]> {
+            private final SimulationSetup setup;
+            // Deck indexes of the first dealt cards of each slice, ascending
+            private final List<int[]> prefixes = new ArrayList<>();
+            private final AtomicInteger nextPrefix = new AtomicInteger();
+            private final long[][] workerCounts;
+            
+            BoardEnumeration(SimulationSetup setup, int numWorkers) {
+                this.setup = setup;
+                this.workerCounts = new long[numWorkers][];
+                int cardsToDeal = setup.cardsToDeal();
+                addPrefixes(new int[Math.max(0, cardsToDeal - 3)], 0, 0, setup.deck.length - cardsToDeal);
+            }
+            
+            /**
+             * Every ascending choice for prefix positions [position, length) from index start on,
+             * leaving enough deck after each for the rest of the board (position k at most last + k)
+             */
+            private void addPrefixes(int[] prefix, int position, int start, int last) {
+                if (position == prefix.length) {
+                    prefixes.add(prefix.clone());
+                    return;
+                }
+                for (int i = start; i <= last + position; i++) {
+                    prefix[position] = i;
+                    addPrefixes(prefix, position + 1, i + 1, last);
+                }
+            }
+            
+            @Override
+            public boolean runSlice(int workerIndex) {
+                int index = nextPrefix.getAndIncrement();
+                if (index >= prefixes.size()) {
+                    return false;
+                }
+                long[] counts = workerCounts[workerIndex];
+                if (counts == null) {
+                    counts = new long[3 * setup.numSeats()];
+                    workerCounts[workerIndex] = counts;
+                }
+                
+                int[] prefix = prefixes.get(index);
+                int known = setup.board.length;
+                int[] communityCards = Arrays.copyOf(setup.board, 5);
+                int start = 0;
+                for (int k = 0; k < prefix.length; k++) {
+                    communityCards[known + k] = setup.deck[prefix[k]];
+                    start = prefix[k] + 1;
+                }
+                enumerateRunouts(communityCards, known + prefix.length, start, new OmahaEvaluator.Board(),
+                        new int[setup.numSeats()], counts);
+                return index + 1 < prefixes.size();
+            }
+            
+            @Override
+            public long[] result() {
+                long[] totals = new long[3 * setup.numSeats()];
+                for (long[] counts : workerCounts) {
+                    if (counts != null) {
+                        for (int i = 0; i < totals.length; i++) {
+                            totals[i] += counts[i];
+                        }
+                    }
+                }
+                return totals;
+            }
+            
+            /**
+             * Fill community positions [position, 5) with every ascending choice of deck cards
+             * from index start on, recording the showdown on each completed board
+             */
+            private void enumerateRunouts(int[] communityCards, int position, int start, OmahaEvaluator.Board board,
+                                          int[] seatRanks, long[] counts) {
+                if (position == communityCards.length) {
+                    board.set(communityCards);
+                    evaluateSeats(setup, board, seatRanks);
+                    recordShowdown(seatRanks, counts);
+                    return;
+                }
+                int[] deck = setup.deck;
+                int last = deck.length - (communityCards.length - position);
+                for (int i = start; i <= last; i++) {
+                    communityCards[position] = deck[i];
+                    enumerateRunouts(communityCards, position + 1, i + 1, board, seatRanks, counts);
+                }
+            }
+        }
+        
+        /**
+         * Rank the hero and known villains on a prepared board, in seat order
+         */
+        private void evaluateSeats(SimulationSetup setup, OmahaEvaluator.Board board, int[] seatRanks) {
+            seatRanks[0] = evaluatePLOHand(setup.heroHand, board);
+            for (int v = 0; v < setup.villainHands.length; v++) {
+                seatRanks[v + 1] = evaluatePLOHand(setup.villainHands[v], board);
+            }
+        }
+        
+        /**
+         * Add one showdown to per-seat integer counters laid out as [wins | ties | pot shares],
+         * numSeats entries each. A seat wins when it alone has the best rank and ties when it
+         * shares it; every seat holding the best rank receives SHARE_UNITS / k of the pot.
+         */
+        private static void recordShowdown(int[] seatRanks, long[] counts) {
+            int numSeats = seatRanks.length;
+            int bestRank = Integer.MAX_VALUE;
+            int winners = 0;
+            for (int rank : seatRanks) {
+                if (rank < bestRank) {
+                    bestRank = rank;
+                    winners = 1;
+                } else if (rank == bestRank) {
+                    winners++;
+                }
+            }
+            int outcome = winners == 1 ? 0 : numSeats;
+            long share = SHARE_UNITS / winners;
+            for (int seat = 0; seat < numSeats; seat++) {
+                if (seatRanks[seat] == bestRank) {
+                    counts[outcome + seat]++;
+                    counts[2 * numSeats + seat] += share;
+                }
+            }
+        }
+        
+        private EquityResult toEquityResult(long[] counts, int numSeats, long iterations, boolean sampled) {
+            double[] equity = new double[numSeats];
+            double[] winRate = new double[numSeats];
+            double[] tieRate = new double[numSeats];
+            double[] standardDeviation = new double[numSeats];
+            for (int seat = 0; seat < numSeats; seat++) {
+                equity[seat] = (double) counts[2 * numSeats + seat] / (SHARE_UNITS * iterations);
+                winRate[seat] = (double) counts[seat] / iterations;
+                tieRate[seat] = (double) counts[numSeats + seat] / iterations;
+                // Equity per runout lies in [0, 1], so p(1 - p) bounds its variance
+                standardDeviation[seat] = sampled ? calculateStandardDeviation(equity[seat], iterations) : 0;
+            }
+            return new EquityResult(equity, winRate, tieRate, standardDeviation, (int) iterations);
+        }
+        
+        /**
+         * Parsed form of a simulation request: everything below this point works on card ints only.
+         * The deck holds the live cards: everything not in a known hand, on the board or dead.
+         */
+        private static class SimulationSetup {
+            final int[] heroHand;
+            final int[][] villainHands;
+            final HandRange.Sampler[] rangeSamplers;
+            final int numRandomVillains;
+            final int[] board;
+            final int[] deck;
+            
+            SimulationSetup(int[] heroHand, int[][] villainHands, HandRange.Sampler[] rangeSamplers, int numRandomVillains,
+                            int[] board, int[] deck) {
+                this.heroHand = heroHand;
+                this.villainHands = villainHands;
+                this.rangeSamplers = rangeSamplers;
+                this.numRandomVillains = numRandomVillains;
+                this.board = board;
+                this.deck = deck;
+            }
+            
+            int numSeats() {
+                return 1 + villainHands.length + rangeSamplers.length + numRandomVillains;
+            }
+            
+            /**
+             * Community cards still to come after the known board
+             */
+            int cardsToDeal() {
+                return 5 - board.length;
+            }
+        }
+        
+        private SimulationSetup validateAndCreateSetup(String heroHand, List<String> villainHands, int numRandomVillains) {
+            return validateAndCreateSetup(heroHand, villainHands, null, numRandomVillains, null, null);
+        }
+        
+        private SimulationSetup validateAndCreateSetup(String heroHand, List<String> villainHands, List<HandRange> villainRanges,
+                                                       int numRandomVillains, String board, String deadCards) {
             // Validate input cards and build removeFromDeck set
-            Set<String> removeFromDeck = new HashSet<>();
-            validateAndCollectCards(heroHand, "Hero", removeFromDeck);
+            long removeFromDeck = validateAndCollectCards(heroHand, "Hero", CardSet.EMPTY);
+            int[][] villains = new int[villainHands == null ? 0 : villainHands.size()][];
+            
+            for (int i = 0; i < villains.length; i++) {
+                removeFromDeck = validateAndCollectCards(villainHands.get(i), "Villain " + (i + 1), removeFromDeck);
+                villains[i] = Card.parseCards(villainHands.get(i));
+            }
             
-            if (villainHands != null && !villainHands.isEmpty()) {
-                for (int i = 0; i < villainHands.size(); i++) {
-                    validateAndCollectCards(villainHands.get(i), "Villain " + (i + 1), removeFromDeck);
+            int[] boardCards = new int[0];
+            if (board != null && !board.isEmpty()) {
+                int numBoardCards = board.length() / 2;
+                if (board.length() % 2 != 0 || numBoardCards < 3 || numBoardCards > 5) {
+                    throw new IllegalArgumentException("Board must have 3, 4 or 5 cards, got: " + board);
                 }
+                removeFromDeck = validateAndCollectCards(board, "Board", numBoardCards, removeFromDeck);
+                boardCards = Card.parseCards(board);
+            }
+            if (deadCards != null && !deadCards.isEmpty()) {
+                if (deadCards.length() % 2 != 0) {
+                    throw new IllegalArgumentException("Dead cards must be a sequence of two-character cards: " + deadCards);
+                }
+                removeFromDeck = validateAndCollectCards(deadCards, "Dead cards", deadCards.length() / 2, removeFromDeck);
+            }
+            
+            int numRanges = villainRanges == null ? 0 : villainRanges.size();
+            int numSeats = 1 + villains.length + numRanges + numRandomVillains;
+            if (numRandomVillains < 0 || numSeats < 2 || numSeats > MAX_SEATS) {
+                throw new IllegalArgumentException("Number of players must be between 2 and " + MAX_SEATS + ", got " + numSeats);
+            }
+            
+            // Ranges lose every combo that a known card blocks, once, before any dealing
+            HandRange.Sampler[] rangeSamplers = new HandRange.Sampler[numRanges];
+            for (int i = 0; i < numRanges; i++) {
+                rangeSamplers[i] = villainRanges.get(i).sampler(removeFromDeck);
             }
             
-            // Create deck without hero and villain cards
-            return createDeckWithoutCards(removeFromDeck);
+            // Create deck without hero, villain, board and dead cards
+            int[] deck = createDeckWithoutCards(removeFromDeck);
+            int cardsNeeded = 4 * (numRanges + numRandomVillains) + 5 - boardCards.length;
+            if (deck.length < cardsNeeded) {
+                throw new IllegalArgumentException("Only " + deck.length + " live cards left, " + cardsNeeded + " needed to deal");
+            }
+            return new SimulationSetup(Card.parseCards(heroHand), villains, rangeSamplers, numRandomVillains, boardCards, deck);
         }
         
-        private SimulationResult simulateAdaptiveSingleThread(String heroHand, List<String> villainHands) {
-            List<String> deck = validateAndCreateDeck(heroHand, villainHands);
+        /**
+         * Coordination state shared by the workers of one simulation. Each batch produces a vector
+         * of integer counters; they are LongAdders so workers publish batches without contending
+         * on a lock. The stop flag is volatile so every worker sees it at its next batch boundary.
+         * Workers claim iterations before running them, so the run never exceeds maxIterations
+         * (beyond rounding to whole sampling units).
+         */
+        private abstract class SimulationRun<R> implements SimulationScheduler.Job<R> {
+            final SimulationSetup setup;
+            final int numWorkers;
+            final SimulationOptions options;
+            final CancellationToken token;
+            final long deadline;
+            final LongAdder[] counters;
+            final LongAdder iterations = new LongAdder();
+            final AtomicLong claimed = new AtomicLong();
+            volatile boolean stopped;
+            volatile StopReason stopReason;
+            Consumer<? super R> progress;
+            final AtomicLong nextProgress = new AtomicLong(System.nanoTime() + PROGRESS_INTERVAL_NANOS);
+            // One slot per scheduler thread, each created by and only touched by that thread
+            final WorkerState[] workerStates;
+            private final SplittableRandom rootRandom = new SplittableRandom();
             
-            int heroWins = 0;
-            int iterations = 0;
+            SimulationRun(SimulationSetup setup, int numWorkers, SimulationOptions options, CancellationToken token, int numCounters) {
+                this.setup = setup;
+                this.numWorkers = numWorkers;
+                this.options = options;
+                this.token = token;
+                this.deadline = options.timeBudgetMillis == SimulationOptions.NO_TIME_BUDGET
+                        ? Long.MAX_VALUE : System.nanoTime() + options.timeBudgetMillis * 1_000_000;
+                this.counters = new LongAdder[numCounters];
+                for (int i = 0; i < numCounters; i++) {
+                    counters[i] = new LongAdder();
+                }
+                this.workerStates = new WorkerState[numWorkers];
+            }
             
-            while (true) {
-                // Run a batch of simulations
-                SimulationBatchResult batch = runSimulationBatch(heroHand, villainHands, deck);
-                heroWins += batch.heroWins;
-                iterations += batch.iterations;
+            /**
+             * One batch on the calling scheduler thread, with its own deck and an independent
+             * split of the generator; false once the run has stopped
+             */
+            @Override
+            public boolean runSlice(int workerIndex) {
+                WorkerState state = workerStates[workerIndex];
+                if (state == null) {
+                    synchronized (rootRandom) {
+                        state = new WorkerState(setup, rootRandom.split());
+                    }
+                    workerStates[workerIndex] = state;
+                }
+                return !stopped && runOneBatch(this, state) && !stopped;
+            }
+            
+            @Override
+            public R result() {
+                return toResult();
+            }
+            
+            /**
+             * Run about batchSize iterations on the worker's state, adding to counts, and return
+             * the number actually run (strategies that sample in units round to whole units)
+             */
+            abstract int runBatch(WorkerState state, int batchSize, long[] counts);
+            
+            /**
+             * Whether counter totals over the given number of iterations meet the stopping criteria
+             */
+            abstract boolean meetsStoppingCriteria(long[] totals, long iterations);
+            
+            /**
+             * Result from the counters so far, labelled with the given reason (null while running)
+             */
+            abstract R snapshot(StopReason reason);
+            
+            R toResult() {
+                return snapshot(stopReason());
+            }
+            
+            /**
+             * Reserve up to batchSize iterations under the maxIterations cap; 0 means the cap is reached
+             */
+            int claimBatch(int batchSize) {
+                long available = options.maxIterations - claimed.getAndAdd(batchSize);
+                if (available <= 0) {
+                    stop(StopReason.MAX_ITERATIONS);
+                    return 0;
+                }
+                return (int) Math.min(batchSize, available);
+            }
+            
+            /**
+             * Add a finished batch and check the stopping criteria. The check is a few counter
+             * sums, cheap enough to run after every batch, so a run stops within one batch of
+             * converging rather than at the next power-of-ten boundary.
+             */
+            void addBatch(long[] batchCounts, int batchSize) {
+                // Iterations are published before counters and read after them, so a snapshot
+                // never counts outcomes whose iterations are missing
+                iterations.add(batchSize);
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i].add(batchCounts[i]);
+                }
                 
-                // Check stopping criteria only at meaningful checkpoints
-                if (shouldCheckStoppingCriteria(iterations)) {
-                    double winRate = (double) heroWins / iterations;
-                    double standardDeviation = calculateStandardDeviation(winRate, iterations);
-                    double confidenceInterval = calculateConfidenceInterval95(standardDeviation);
-
-                    if (iterations >= MIN_ITERATIONS && standardDeviation <= DEFAULT_STOPPING_SD && confidenceInterval <= DEFAULT_STOPPING_CI) {
-                        break;
+                long[] totals = sums();
+                long total = iterations.sum();
+                if (total >= MIN_ITERATIONS && meetsStoppingCriteria(totals, total)) {
+                    stop(StopReason.CONVERGED);
+                } else if (total >= options.maxIterations) {
+                    stop(StopReason.MAX_ITERATIONS);
+                } else if (token.isCancelled()) {
+                    stop(StopReason.CANCELLED);
+                } else if (System.nanoTime() >= deadline || token.isExpired()) {
+                    stop(StopReason.DEADLINE);
+                } else if (progress != null) {
+                    // Only the worker that advances the schedule publishes
+                    long now = System.nanoTime();
+                    long due = nextProgress.get();
+                    if (now - due >= 0 && nextProgress.compareAndSet(due, now + PROGRESS_INTERVAL_NANOS)) {
+                        progress.accept(snapshot(null));
                     }
                 }
             }
             
-            double finalWinRate = (double) heroWins / iterations;
-            double finalStandardDeviation = calculateStandardDeviation(finalWinRate, iterations);
-            double finalConfidenceInterval = calculateConfidenceInterval95(finalStandardDeviation);
+            /**
+             * Stop every worker at its next batch boundary; the first reason given is kept
+             */
+            void stop(StopReason reason) {
+                if (stopReason == null) {
+                    stopReason = reason;
+                }
+                stopped = true;
+            }
+            
+            /**
+             * Reason to report; a run that was never stopped ran a fixed iteration count
+             */
+            StopReason stopReason() {
+                StopReason reason = stopReason;
+                return reason == null ? StopReason.MAX_ITERATIONS : reason;
+            }
+            
+            /**
+             * Whether an estimate of a rate in [0, 1] meets both precision targets. With the
+             * Bernoulli variance this is the Wilson score interval; other estimators substitute
+             * their own variance. Either way the z^2 / 4n^2 term keeps estimates of 0 or 1 from
+             * looking exact after a handful of samples. The plain standard deviation, which is
+             * what results report, must meet the targets too.
+             */
+            boolean isPreciseEnough(double variance, long samples) {
+                double z = CONFIDENCE_LEVEL_95;
+                double n = samples;
+                double standardDeviation = Math.max(Math.sqrt(variance),
+                        Math.sqrt(variance + z * z / (4 * n * n)) / (1 + z * z / n));
+                return standardDeviation <= options.targetStandardDeviation
+                        && z * standardDeviation <= options.targetConfidenceInterval;
+            }
             
-            return new SimulationResult(finalWinRate, finalStandardDeviation, finalConfidenceInterval, iterations);
+            long[] sums() {
+                long[] totals = new long[counters.length];
+                for (int i = 0; i < counters.length; i++) {
+                    totals[i] = counters[i].sum();
+                }
+                return totals;
+            }
         }
         
-        private static class SimulationBatchResult {
-            final int heroWins;
-            final int iterations;
+        /**
+         * Hero win rate only: one counter, ties count as losses
+         */
+        private class WinRateRun extends SimulationRun<SimulationResult> {
+            WinRateRun(SimulationSetup setup, int numWorkers, SimulationOptions options, CancellationToken token) {
+                super(setup, numWorkers, options, token, 1);
+            }
             
-            SimulationBatchResult(int heroWins, int iterations) {
-                this.heroWins = heroWins;
-                this.iterations = iterations;
+            @Override
+            int runBatch(WorkerState state, int batchSize, long[] counts) {
+                counts[0] += runSimulationBatch(setup, state, batchSize);
+                return batchSize;
+            }
+            
+            @Override
+            boolean meetsStoppingCriteria(long[] totals, long iterations) {
+                double winRate = (double) totals[0] / iterations;
+                return isPreciseEnough(winRate * (1 - winRate) / iterations, iterations);
+            }
+            
+            @Override
+            SimulationResult snapshot(StopReason reason) {
+                // Counters before iterations, as in addBatch, so a concurrent batch cannot push
+                // the win rate above its true value
+                long wins = counters[0].sum();
+                int totalIterations = (int) iterations.sum();
+                double winRate = (double) wins / totalIterations;
+                double standardDeviation = calculateStandardDeviation(winRate, totalIterations);
+                return new SimulationResult(winRate, standardDeviation, calculateConfidenceInterval95(standardDeviation), totalIterations,
+                        reason);
             }
         }
         
-        private SimulationBatchResult runSimulationBatch(String heroHand, List<String> villainHands, List<String> deck) {
-            int heroWins = 0;
-            int iterations = 0;
+        /**
+         * Every seat's wins, ties and pot shares; stops once each seat's equity is precise enough
+         */
+        private class EquityRun extends SimulationRun<EquityResult> {
+            EquityRun(SimulationSetup setup, int numWorkers, SimulationOptions options, CancellationToken token) {
+                super(setup, numWorkers, options, token, 3 * setup.numSeats());
+            }
             
-            // Run a batch of simulations
-            for (int i = 0; i < SIMULATION_BATCH_SIZE; i++) {
-            iterations++;
-            List<String> iterationDeck = new ArrayList<>(deck);
-            Collections.shuffle(iterationDeck);
-            int currentDeckIndex = 0;
-
-            // Deal villain hands if none specified
-            List<String> currentVillainHands = new ArrayList<>();
-            if (villainHands == null || villainHands.isEmpty()) {
-                String villainHand = dealSequentialHand(iterationDeck, currentDeckIndex, 4);
-                currentVillainHands.add(villainHand);
-                currentDeckIndex += 4;
-            } else {
-                currentVillainHands.addAll(villainHands);
+            @Override
+            int runBatch(WorkerState state, int batchSize, long[] counts) {
+                runEquityBatch(setup, state, batchSize, counts);
+                return batchSize;
             }
-
-            String communityCards = dealSequentialHand(iterationDeck, currentDeckIndex, 5);
-
-            int heroRank = evaluatePLOHand(heroHand, communityCards);
-            boolean heroWinsThis = true;
             
-            for (String villainHand : currentVillainHands) {
-                int villainRank = evaluatePLOHand(villainHand, communityCards);
-                if (villainRank <= heroRank) {
-                    heroWinsThis = false;
-                    break;
+            @Override
+            boolean meetsStoppingCriteria(long[] totals, long iterations) {
+                int numSeats = setup.numSeats();
+                for (int seat = 0; seat < numSeats; seat++) {
+                    double equity = (double) totals[2 * numSeats + seat] / (SHARE_UNITS * iterations);
+                    if (!isPreciseEnough(equity * (1 - equity) / iterations, iterations)) {
+                        return false;
+                    }
                 }
+                return true;
             }
             
-            if (heroWinsThis) {
-                heroWins++;
+            @Override
+            EquityResult snapshot(StopReason reason) {
+                // Counters before iterations, as in addBatch
+                long[] totals = sums();
+                return toEquityResult(totals, setup.numSeats(), iterations.sum(), true);
             }
         }
         
-        return new SimulationBatchResult(heroWins, iterations);
-    }
-    
-    private SimulationResult simulateAdaptiveParallel(String heroHand, List<String> villainHands, int numThreads) {
-        List<String> deck = validateAndCreateDeck(heroHand, villainHands);
-        
-        // Shared state for coordination
-        final int[] totalHeroWins = {0};
-        final int[] totalIterations = {0};
-        final Object lock = new Object();
-        final boolean[] shouldStop = {false};
+        /**
+         * Hero win rate from independent sampling units of unitSize runouts each. Counters are
+         * [units, wins, sum of squared unit wins]; the standard deviation comes from the sample
+         * variance of the unit means, which stays valid however runouts inside a unit correlate.
+         */
+        private abstract class ReplicatedRun extends SimulationRun<SimulationResult> {
+            final int unitSize;
+            
+            ReplicatedRun(SimulationSetup setup, int numWorkers, SimulationOptions options, CancellationToken token, int unitSize) {
+                super(setup, numWorkers, options, token, 3);
+                this.unitSize = unitSize;
+            }
+            
+            /**
+             * Deal and evaluate one unit, returning the hero's wins in it
+             */
+            abstract int runUnit(WorkerState state);
+            
+            @Override
+            int runBatch(WorkerState state, int batchSize, long[] counts) {
+                int units = Math.max(1, batchSize / unitSize);
+                for (int u = 0; u < units; u++) {
+                    long unitWins = runUnit(state);
+                    counts[0]++;
+                    counts[1] += unitWins;
+                    counts[2] += unitWins * unitWins;
+                }
+                return units * unitSize;
+            }
+            
+            @Override
+            boolean meetsStoppingCriteria(long[] totals, long iterations) {
+                double standardDeviation = standardDeviation(totals);
+                return totals[0] >= MIN_UNITS && isPreciseEnough(standardDeviation * standardDeviation, iterations);
+            }
+            
+            double standardDeviation(long[] totals) {
+                long units = totals[0];
+                if (units < 2) {
+                    return Double.NaN;
+                }
+                double mean = (double) totals[1] / (units * unitSize);
+                double sumOfSquares = (double) totals[2] / ((double) unitSize * unitSize);
+                double unitVariance = Math.max(0, (sumOfSquares - units * mean * mean) / (units - 1));
+                return Math.sqrt(unitVariance / units);
+            }
+            
+            @Override
+            SimulationResult snapshot(StopReason reason) {
+                long[] totals = sums();
+                int totalIterations = (int) (totals[0] * unitSize);
+                double winRate = (double) totals[1] / totalIterations;
+                double standardDeviation = standardDeviation(totals);
+                return new SimulationResult(winRate, standardDeviation, calculateConfidenceInterval95(standardDeviation), totalIterations,
+                        reason);
+            }
+        }
         
-        // Create CompletableFuture tasks
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        private class AntitheticRun extends ReplicatedRun {
+            AntitheticRun(SimulationSetup setup, int numWorkers, SimulationOptions options, CancellationToken token) {
+                super(setup, numWorkers, options, token, 2);
+            }
+            
+            @Override
+            int runUnit(WorkerState state) {
+                // Both deals start from the ordered live deck, so each is uniform on its own
+                int[] offsets = state.offsets;
+                int numCards = offsets.length;
+                for (int i = 0; i < numCards; i++) {
+                    offsets[i] = state.random.nextInt(setup.deck.length - i);
+                }
+                state.dealAt(setup.deck, offsets);
+                int wins = heroWinsRunout(setup, state) ? 1 : 0;
+                
+                for (int i = 0; i < numCards; i++) {
+                    offsets[i] = setup.deck.length - i - 1 - offsets[i];
+                }
+                state.dealAt(setup.deck, offsets);
+                return wins + (heroWinsRunout(setup, state) ? 1 : 0);
+            }
+        }
         
-        for (int t = 0; t < numThreads; t++) {
-            CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
-                List<String> threadDeck = new ArrayList<>(deck);
+        private class QuasiRandomRun extends ReplicatedRun {
+            QuasiRandomRun(SimulationSetup setup, int numWorkers, SimulationOptions options, CancellationToken token) {
+                super(setup, numWorkers, options, token, QMC_BLOCK_SIZE);
+            }
+            
+            @Override
+            int runUnit(WorkerState state) {
+                int[] offsets = state.offsets;
+                int numCards = offsets.length;
+                double[] shift = state.shift;
+                for (int i = 0; i < numCards; i++) {
+                    shift[i] = state.random.nextDouble();
+                }
                 
-                while (!shouldStop[0]) {
-                    // Run a batch of simulations using the shared method
-                    SimulationBatchResult batch = runSimulationBatch(heroHand, villainHands, threadDeck);
+                int wins = 0;
+                for (int point = 1; point <= QMC_BLOCK_SIZE; point++) {
+                    // Point of the shifted Kronecker sequence, one coordinate per dealt card
+                    for (int i = 0; i < numCards; i++) {
+                        double u = shift[i] + point * KRONECKER_ALPHAS[i];
+                        u -= Math.floor(u);
+                        offsets[i] = (int) (u * (setup.deck.length - i));
+                    }
+                    state.dealAt(setup.deck, offsets);
+                    if (heroWinsRunout(setup, state)) {
+                        wins++;
+                    }
+                }
+                return wins;
+            }
+        }
+        
+        /**
+         * Flop-stratified hero win rate. Counters are [samples | wins] per stratum; the estimate is
+         * the probability-weighted sum of stratum win rates.
+         */
+        private class StratifiedRun extends SimulationRun<SimulationResult> {
+            final FlopStrata strata;
+            
+            StratifiedRun(SimulationSetup setup, int numWorkers, SimulationOptions options, CancellationToken token) {
+                this(setup, numWorkers, options, token, new FlopStrata(setup.deck));
+            }
+            
+            private StratifiedRun(SimulationSetup setup, int numWorkers, SimulationOptions options, CancellationToken token,
+                                  FlopStrata strata) {
+                super(setup, numWorkers, options, token, 2 * strata.count());
+                this.strata = strata;
+            }
+            
+            @Override
+            int runBatch(WorkerState state, int batchSize, long[] counts) {
+                int numStrata = strata.count();
+                for (int i = 0; i < batchSize; i++) {
+                    state.schedulePosition = (state.schedulePosition + 1) % strata.schedule.length;
+                    int stratum = strata.schedule[state.schedulePosition];
                     
-                    // Update global counters
-                    synchronized (lock) {
-                        if (!shouldStop[0]) {
-                            totalHeroWins[0] += batch.heroWins;
-                            totalIterations[0] += batch.iterations;
-                            
-                            // Check stopping criteria only at meaningful checkpoints
-                            if (shouldCheckStoppingCriteria(totalIterations[0])) {
-                                double winRate = (double) totalHeroWins[0] / totalIterations[0];
-                                double standardDeviation = calculateStandardDeviation(winRate, totalIterations[0]);
-                                double confidenceInterval = calculateConfidenceInterval95(standardDeviation);
-
-                                if (totalIterations[0] >= MIN_ITERATIONS && standardDeviation <= DEFAULT_STOPPING_SD && confidenceInterval <= DEFAULT_STOPPING_CI) {
-                                    shouldStop[0] = true;
+                    int[] flops = strata.flops[stratum];
+                    state.dealWithFlop(flops[state.random.nextInt(flops.length)]);
+                    counts[stratum]++;
+                    if (heroWinsRunout(setup, state)) {
+                        counts[numStrata + stratum]++;
+                    }
+                }
+                return batchSize;
+            }
+            
+            @Override
+            boolean meetsStoppingCriteria(long[] totals, long iterations) {
+                for (int stratum = 0; stratum < strata.count(); stratum++) {
+                    if (totals[stratum] < 2) {
+                        return false;
+                    }
+                }
+                double standardDeviation = standardDeviation(totals);
+                return isPreciseEnough(standardDeviation * standardDeviation, iterations);
+            }
+            
+            double standardDeviation(long[] totals) {
+                int numStrata = strata.count();
+                double variance = 0;
+                for (int stratum = 0; stratum < numStrata; stratum++) {
+                    long samples = totals[stratum];
+                    if (samples < 2) {
+                        return Double.NaN;
+                    }
+                    double rate = (double) totals[numStrata + stratum] / samples;
+                    double weight = strata.weights[stratum];
+                    // Unbiased within-stratum variance of a Bernoulli mean: p(1 - p) / (n - 1)
+                    variance += weight * weight * rate * (1 - rate) / (samples - 1);
+                }
+                return Math.sqrt(variance);
+            }
+            
+            @Override
+            SimulationResult snapshot(StopReason reason) {
+                long[] totals = sums();
+                int numStrata = strata.count();
+                double winRate = 0;
+                long totalIterations = 0;
+                for (int stratum = 0; stratum < numStrata; stratum++) {
+                    totalIterations += totals[stratum];
+                    if (totals[stratum] > 0) {
+                        winRate += strata.weights[stratum] * totals[numStrata + stratum] / totals[stratum];
+                    }
+                }
+                double standardDeviation = standardDeviation(totals);
+                return new SimulationResult(winRate, standardDeviation, calculateConfidenceInterval95(standardDeviation),
+                        (int) totalIterations, reason);
+            }
+        }
+        
+        /**
+         * Every flop that can come from a live deck, grouped by texture: suit pattern (monotone,
+         * two-tone, rainbow), pairing (trips, paired, unpaired) and high-card bucket (7 or lower,
+         * 8-T, J-Q, K-A). Flops are packed as three 6-bit card ints. Weights are exact stratum
+         * probabilities; the schedule lists stratum ids in proportion to them, at least one each.
+         */
+        private static class FlopStrata {
+            final int[][] flops;
+            final double[] weights;
+            final int[] schedule;
+            
+            FlopStrata(int[] deck) {
+                int[] counts = new int[36];
+                int[][] byTexture = new int[36][];
+                int total = 0;
+                for (int pass = 0; pass < 2; pass++) {
+                    for (int a = 0; a < deck.length; a++) {
+                        for (int b = a + 1; b < deck.length; b++) {
+                            for (int c = b + 1; c < deck.length; c++) {
+                                int texture = texture(deck[a], deck[b], deck[c]);
+                                if (pass == 0) {
+                                    counts[texture]++;
+                                    total++;
+                                } else {
+                                    byTexture[texture][--counts[texture]] = deck[a] | deck[b] << 6 | deck[c] << 12;
                                 }
                             }
                         }
                     }
+                    if (pass == 0) {
+                        for (int texture = 0; texture < counts.length; texture++) {
+                            byTexture[texture] = new int[counts[texture]];
+                        }
+                    }
                 }
-            });
-            futures.add(future);
+                
+                List<int[]> nonEmpty = new ArrayList<>();
+                for (int[] texture : byTexture) {
+                    if (texture.length > 0) {
+                        nonEmpty.add(texture);
+                    }
+                }
+                this.flops = nonEmpty.toArray(new int[0][]);
+                this.weights = new double[flops.length];
+                int[] allocation = new int[flops.length];
+                int scheduleLength = 0;
+                for (int stratum = 0; stratum < flops.length; stratum++) {
+                    weights[stratum] = (double) flops[stratum].length / total;
+                    allocation[stratum] = (int) Math.max(1, Math.round(weights[stratum] * STRATIFIED_ROUND));
+                    scheduleLength += allocation[stratum];
+                }
+                // Interleave strata so every stretch of the schedule is close to proportional
+                this.schedule = new int[scheduleLength];
+                int[] assigned = new int[flops.length];
+                for (int i = 0; i < scheduleLength; i++) {
+                    int next = 0;
+                    double mostBehind = Double.NEGATIVE_INFINITY;
+                    for (int stratum = 0; stratum < flops.length; stratum++) {
+                        double behind = (double) allocation[stratum] * (i + 1) / scheduleLength - assigned[stratum];
+                        if (behind > mostBehind) {
+                            mostBehind = behind;
+                            next = stratum;
+                        }
+                    }
+                    schedule[i] = next;
+                    assigned[next]++;
+                }
+            }
+            
+            int count() {
+                return flops.length;
+            }
+            
+            private static int texture(int c1, int c2, int c3) {
+                int suits = 1 << Card.suit(c1) | 1 << Card.suit(c2) | 1 << Card.suit(c3);
+                int ranks = 1 << Card.rank(c1) | 1 << Card.rank(c2) | 1 << Card.rank(c3);
+                int highRank = 31 - Integer.numberOfLeadingZeros(ranks);
+                int highBucket = highRank <= 5 ? 0 : highRank <= 8 ? 1 : highRank <= 10 ? 2 : 3;
+                return ((Integer.bitCount(suits) - 1) * 3 + Integer.bitCount(ranks) - 1) * 4 + highBucket;
+            }
         }
         
-        // Wait for all futures to complete
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        private static double[] kroneckerAlphas(int... primes) {
+            double[] alphas = new double[primes.length];
+            for (int i = 0; i < primes.length; i++) {
+                double root = Math.sqrt(primes[i]);
+                alphas[i] = root - Math.floor(root);
+            }
+            return alphas;
+        }
         
-        // Calculate final results
-        double finalWinRate = (double) totalHeroWins[0] / totalIterations[0];
-        double finalStandardDeviation = calculateStandardDeviation(finalWinRate, totalIterations[0]);
-        double finalConfidenceInterval = calculateConfidenceInterval95(finalStandardDeviation);
+        /**
+         * Claim, run and publish one batch, then adapt the worker's batch size for this run. Batch
+         * size doubles while batches finish well under TARGET_BATCH_NANOS and halves when they
+         * overrun, and is capped at a share of the work done so far so the final round cannot
+         * overshoot the stopping point by much. Returns false if the iteration cap left nothing
+         * to claim.
+         */
+        private boolean runOneBatch(SimulationRun<?> run, WorkerState state) {
+            int claimedSize = run.claimBatch(state.batchSize);
+            if (claimedSize == 0) {
+                return false;
+            }
+            if (state.batchCounts == null || state.batchCounts.length != run.counters.length) {
+                state.batchCounts = new long[run.counters.length];
+            }
+            long[] batchCounts = state.batchCounts;
+            Arrays.fill(batchCounts, 0);
+            long start = System.nanoTime();
+            int completed = run.runBatch(state, claimedSize, batchCounts);
+            long elapsed = System.nanoTime() - start;
+            run.addBatch(batchCounts, completed);
+            
+            int batchSize = state.batchSize;
+            if (elapsed < TARGET_BATCH_NANOS / 2) {
+                batchSize = Math.min(batchSize * 2, MAX_BATCH_SIZE);
+            } else if (elapsed > TARGET_BATCH_NANOS * 2) {
+                batchSize = Math.max(batchSize / 2, SIMULATION_BATCH_SIZE);
+            }
+            long share = run.iterations.sum() / (4L * run.numWorkers);
+            state.batchSize = (int) Math.max(SIMULATION_BATCH_SIZE, Math.min(batchSize, share));
+            return true;
+        }
         
-        return new SimulationResult(finalWinRate, finalStandardDeviation, finalConfidenceInterval, totalIterations[0]);
-    }
-    
-    private void validateAndCollectCards(String hand, String playerName, Set<String> removeFromDeck) {
-        if (hand == null || hand.length() != 8) {
-            throw new IllegalArgumentException(playerName + " hand must be exactly 8 characters (4 cards)");
+        /**
+         * Run a fixed number of iterations on the calling thread
+         */
+        SimulationResult simulateIterations(String heroHand, List<String> villainHands, int iterations) {
+            return simulateIterations(heroHand, villainHands, iterations, SamplingStrategy.PLAIN);
+        }
+        
+        /**
+         * Run about the given number of iterations (rounded to whole sampling units) with a
+         * sampling strategy on the calling thread, ignoring the stopping criteria
+         */
+        SimulationResult simulateIterations(String heroHand, List<String> villainHands, int iterations, SamplingStrategy strategy) {
+            SimulationSetup setup = createWinRateSetup(heroHand, villainHands, null, null, null);
+            SimulationRun<SimulationResult> run = createWinRateRun(setup, strategy, 1, options, new CancellationToken());
+            long[] counts = new long[run.counters.length];
+            int completed = run.runBatch(new WorkerState(run.setup, new SplittableRandom()), iterations, counts);
+            run.addBatch(counts, completed);
+            return run.toResult();
         }
         
-        for (int i = 0; i < 4; i++) {
-            String card = hand.substring(i * 2, (i + 1) * 2);
+        /**
+         * Scratch space owned by one worker thread: its own copy of the live deck, which is
+         * partially shuffled in place, its own random generator, and buffers for the dealt cards.
+         * Reused across iterations so the dealing loop allocates nothing.
+         */
+        private static class WorkerState {
+            final int[] deck;
+            final SplittableRandom random;
+            final HandRange.Sampler[] rangeSamplers;
+            final int[][] rangeVillainHands;
+            // Deck positions [0, liveCards) are dealt from; range villains' cards are parked behind
+            final int liveCards;
+            final int[][] randomVillainHands;
+            final int[] communityCards = new int[5];
+            final int knownBoardCards;
+            final int[] seatRanks;
+            final OmahaEvaluator.Board board = new OmahaEvaluator.Board();
+            // Variance-reduction scratch: per-card draw offsets, QMC shift, stratum schedule position
+            final int[] offsets;
+            final double[] shift;
+            int schedulePosition;
+            // Batch size adapted to this worker's throughput, and its per-batch counter buffer
+            int batchSize = SIMULATION_BATCH_SIZE;
+            long[] batchCounts;
             
-            // Check if card is valid (exists in full deck)
-            if (!fullDeck.contains(card)) {
-                throw new IllegalArgumentException(playerName + " hand contains invalid card: " + card);
+            WorkerState(SimulationSetup setup, SplittableRandom random) {
+                this.deck = setup.deck.clone();
+                this.random = random;
+                this.rangeSamplers = setup.rangeSamplers;
+                this.rangeVillainHands = new int[rangeSamplers.length][];
+                this.liveCards = deck.length - 4 * rangeSamplers.length;
+                this.randomVillainHands = new int[setup.numRandomVillains][4];
+                // Known board cards stay in place; each deal fills in the rest
+                this.knownBoardCards = setup.board.length;
+                System.arraycopy(setup.board, 0, communityCards, 0, knownBoardCards);
+                this.seatRanks = new int[setup.numSeats()];
+                this.offsets = new int[4 * setup.numRandomVillains + setup.cardsToDeal()];
+                this.shift = new double[offsets.length];
+                this.schedulePosition = random.nextInt(STRATIFIED_ROUND);
             }
             
-            // Check if card is already in removeFromDeck (duplicate)
-            if (!removeFromDeck.add(card)) {
-                throw new IllegalArgumentException("Card " + card + " is used by multiple players");
+            /**
+             * Draw the range villains, then shuffle and deal the random villains from the front of
+             * the deck, then the rest of the board
+             */
+            void deal() {
+                drawRangeVillains();
+                shuffleFront(offsets.length);
+                distribute();
+            }
+            
+            /**
+             * Draw every range villain's hand from its alias table, drawing them all again if two
+             * overlap, and move their cards behind liveCards where the rest of the deal cannot
+             * reach them. The drawn hands are the samplers' own arrays, so nothing is copied.
+             */
+            private void drawRangeVillains() {
+                int numRanges = rangeSamplers.length;
+                if (numRanges == 0) {
+                    return;
+                }
+                for (int attempt = 0; !drawRangeHands(); attempt++) {
+                    if (attempt == MAX_RANGE_DRAWS) {
+                        throw new IllegalArgumentException("Villain ranges overlap too much to be dealt together");
+                    }
+                }
+                // Cards drawn last time are already at the back; swapping in order from the end
+                // never displaces a card placed earlier in this loop
+                int slot = deck.length;
+                for (int[] hand : rangeVillainHands) {
+                    for (int card : hand) {
+                        int position = 0;
+                        while (deck[position] != card) {
+                            position++;
+                        }
+                        swap(position, --slot);
+                    }
+                }
+            }
+            
+            private boolean drawRangeHands() {
+                long drawn = CardSet.EMPTY;
+                for (int v = 0; v < rangeSamplers.length; v++) {
+                    HandRange.Sampler sampler = rangeSamplers[v];
+                    int combo = sampler.sample(random);
+                    if ((drawn & sampler.combos[combo]) != 0) {
+                        return false;
+                    }
+                    drawn |= sampler.combos[combo];
+                    rangeVillainHands[v] = sampler.hands[combo];
+                }
+                return true;
+            }
+            
+            /**
+             * Deal from a fixed starting order: card i swaps with position i + offsets[i], so
+             * uniform offsets in [0, n - i) give a uniform deal
+             */
+            void dealAt(int[] startDeck, int[] offsets) {
+                System.arraycopy(startDeck, 0, deck, 0, deck.length);
+                for (int i = 0; i < offsets.length; i++) {
+                    swap(i, i + offsets[i]);
+                }
+                distribute();
+            }
+            
+            /**
+             * Deal a given flop (packed as three 6-bit cards), then the rest uniformly: the flop is
+             * moved to the front and the random villains, turn and river are shuffled in after it
+             */
+            void dealWithFlop(int flop) {
+                for (int i = 0; i < 3; i++) {
+                    int card = (flop >>> (6 * i)) & 0x3F;
+                    int position = i;
+                    while (deck[position] != card) {
+                        position++;
+                    }
+                    swap(i, position);
+                }
+                for (int i = 3; i < offsets.length; i++) {
+                    swap(i, i + random.nextInt(liveCards - i));
+                }
+                int numRandomVillains = randomVillainHands.length;
+                System.arraycopy(deck, 0, communityCards, 0, 5);
+                for (int v = 0; v < numRandomVillains; v++) {
+                    System.arraycopy(deck, 5 + 4 * v, randomVillainHands[v], 0, 4);
+                }
+            }
+            
+            private void distribute() {
+                int numRandomVillains = randomVillainHands.length;
+                for (int v = 0; v < numRandomVillains; v++) {
+                    System.arraycopy(deck, 4 * v, randomVillainHands[v], 0, 4);
+                }
+                System.arraycopy(deck, 4 * numRandomVillains, communityCards, knownBoardCards, 5 - knownBoardCards);
+            }
+            
+            private void swap(int i, int j) {
+                int card = deck[i];
+                deck[i] = deck[j];
+                deck[j] = card;
+            }
+            
+            /**
+             * Partial Fisher-Yates: move numCards uniformly chosen cards to the front of the deck.
+             * The deck keeps whatever order earlier iterations left, which does not bias the draw.
+             */
+            void shuffleFront(int numCards) {
+                for (int i = 0; i < numCards; i++) {
+                    swap(i, i + random.nextInt(liveCards - i));
+                }
             }
         }
-    }
-    
-    private List<String> createDeckWithoutCards(Set<String> removeFromDeck) {
-        List<String> deck = new ArrayList<>();
         
-        for (String card : fullDeck) {
-            if (!removeFromDeck.contains(card)) {
-                deck.add(card);
+        /**
+         * Run iterations against the worker's deck and return the number of hero wins
+         */
+        private int runSimulationBatch(SimulationSetup setup, WorkerState state, int batchSize) {
+            int heroWins = 0;
+            
+            // Run a batch of simulations
+            for (int i = 0; i < batchSize; i++) {
+                // Only the cards actually dealt are shuffled: the board plus any random villains
+                state.deal();
+                
+                if (heroWinsRunout(setup, state)) {
+                    heroWins++;
+                }
             }
+            
+            return heroWins;
         }
         
-        return deck;
-    }
+        /**
+         * Whether the hero strictly beats every player on the runout last dealt into state
+         */
+        private boolean heroWinsRunout(SimulationSetup setup, WorkerState state) {
+            // Prepare the runout once and evaluate every player against it
+            OmahaEvaluator.Board board = state.board.set(state.communityCards);
+            int heroRank = evaluatePLOHand(setup.heroHand, board);
+            
+            for (int[] villainHand : setup.villainHands) {
+                if (evaluatePLOHand(villainHand, board) <= heroRank) {
+                    return false;
+                }
+            }
+            for (int[] villainHand : state.rangeVillainHands) {
+                if (evaluatePLOHand(villainHand, board) <= heroRank) {
+                    return false;
+                }
+            }
+            for (int[] villainHand : state.randomVillainHands) {
+                if (evaluatePLOHand(villainHand, board) <= heroRank) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        /**
+         * Run iterations against the worker's deck, adding every seat's showdown to counts
+         */
+        private void runEquityBatch(SimulationSetup setup, WorkerState state, int batchSize, long[] counts) {
+            int numKnownSeats = 1 + setup.villainHands.length;
+            int numRanges = state.rangeVillainHands.length;
+            for (int i = 0; i < batchSize; i++) {
+                state.deal();
+                OmahaEvaluator.Board board = state.board.set(state.communityCards);
+                evaluateSeats(setup, board, state.seatRanks);
+                for (int v = 0; v < numRanges; v++) {
+                    state.seatRanks[numKnownSeats + v] = evaluatePLOHand(state.rangeVillainHands[v], board);
+                }
+                for (int v = 0; v < state.randomVillainHands.length; v++) {
+                    state.seatRanks[numKnownSeats + numRanges + v] = evaluatePLOHand(state.randomVillainHands[v], board);
+                }
+                recordShowdown(state.seatRanks, counts);
+            }
+        }
     
-    private String dealSequentialHand(List<String> deck, int startIndex, int numCards) {
-        StringBuilder hand = new StringBuilder();
-        for (int i = startIndex; i < startIndex + numCards; i++) {
-            hand.append(deck.get(i));
+    /**
+     * Wait for a scheduled run, rethrowing its failure as thrown rather than wrapped
+     */
+    private static <R> R await(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
         }
-        return hand.toString();
     }
     
-    private int evaluatePLOHand(String holeCards, String communityCards) {
-        // Parse hole cards (4 cards)
-        String[] hole = new String[4];
-        for (int i = 0; i < 4; i++) {
-            hole[i] = holeCards.substring(i * 2, (i + 1) * 2);
+    private long validateAndCollectCards(String hand, String playerName, long removeFromDeck) {
+        if (hand == null || hand.length() != 8) {
+            throw new IllegalArgumentException(playerName + " hand must be exactly 8 characters (4 cards)");
         }
-        
-        // Parse community cards (5 cards)
-        String[] community = new String[5];
-        for (int i = 0; i < 5; i++) {
-            community[i] = communityCards.substring(i * 2, (i + 1) * 2);
+        return validateAndCollectCards(hand, playerName + " hand", 4, removeFromDeck);
+    }
+    
+    /**
+     * Add the first numCards two-character cards to removeFromDeck, rejecting invalid cards and
+     * any card already taken by a hand, the board or the dead cards
+     */
+    private long validateAndCollectCards(String cards, String description, int numCards, long removeFromDeck) {
+        for (int i = 0; i < numCards; i++) {
+            String cardString = cards.substring(i * 2, (i + 1) * 2);
+            int card = Card.parseOrInvalid(cardString);
+            
+            // Check if card is valid (exists in full deck)
+            if (card < 0) {
+                throw new IllegalArgumentException(description + " contains invalid card: " + cardString);
+            }
+            
+            // Check if card is already in removeFromDeck (duplicate)
+            if (CardSet.contains(removeFromDeck, card)) {
+                throw new IllegalArgumentException("Card " + cardString + " is used more than once");
+            }
+            removeFromDeck = CardSet.add(removeFromDeck, card);
         }
+        return removeFromDeck;
+    }
+    
+    private int[] createDeckWithoutCards(long removeFromDeck) {
+        int[] deck = new int[Card.NUM_CARDS - CardSet.size(removeFromDeck)];
+        int index = 0;
         
-        int bestRank = Integer.MAX_VALUE;
-        
-        // Try all possible 2-card combinations from hole cards
-        for (int i = 0; i < 3; i++) {
-            for (int j = i + 1; j < 4; j++) {
-                String[] holeCombo = {hole[i], hole[j]};
-                
-                // Try all possible 3-card combinations from community cards
-                for (int k = 0; k < 3; k++) {
-                    for (int l = k + 1; l < 4; l++) {
-                        for (int m = l + 1; m < 5; m++) {
-                            String[] communityCombo = {community[k], community[l], community[m]};
-                            
-                            // Combine to make 5-card hand
-                            String[] fiveCardHand = new String[5];
-                            fiveCardHand[0] = holeCombo[0];
-                            fiveCardHand[1] = holeCombo[1];
-                            fiveCardHand[2] = communityCombo[0];
-                            fiveCardHand[3] = communityCombo[1];
-                            fiveCardHand[4] = communityCombo[2];
-                            
-                            // Get rank for this 5-card hand
-                            int rank = handCache.getHandRank(fiveCardHand);
-                            
-                            if (rank < bestRank) {
-                                bestRank = rank;
-                            }
-                        }
-                    }
-                }
+        for (int card : fullDeck) {
+            if (!CardSet.contains(removeFromDeck, card)) {
+                deck[index++] = card;
             }
         }
         
-        return bestRank;
+        return deck;
     }
     
-    private boolean shouldCheckStoppingCriteria(int iteration) {
-        if (iteration <= 1000) {
-            return iteration % 100 == 0;
-        } else if (iteration <= 10000) {
-            return iteration % 1000 == 0;
-        } else if (iteration <= 100000) {
-            return iteration % 10000 == 0;
-        } else if (iteration <= 1000000) {
-            return iteration % 100000 == 0;
-        } else {
-            return iteration % 1000000 == 0;
-        }
+    private int evaluatePLOHand(int[] hole, OmahaEvaluator.Board board) {
+        return omahaEvaluator.evaluate(hole, board);
     }
     
-    private double calculateStandardDeviation(double winRate, int iterations) {
+    private double calculateStandardDeviation(double winRate, long iterations) {
         return Math.sqrt(winRate * (1 - winRate) / iterations);
     }
     
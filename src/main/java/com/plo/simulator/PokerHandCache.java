@@ -3,103 +3,196 @@ package com.plo.simulator;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.io.InputStream;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.Map;
-import java.util.Arrays;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
 
-public class PokerHandCache {
-    private final Map<String, Integer> handRankings = new ConcurrentHashMap<>();
-    private final String[] ranks = {"2", "3", "4", "5", "6", "7", "8", "9", "T", "J", "Q", "K", "A"};
-    private final String[] suits = {"s", "h", "d", "c"};
+public class PokerHandCache implements HandEvaluator {
+    public static final int NUM_HANDS = 2_598_960; // C(52, 5)
+
+    private static final String DEFAULT_RANKINGS_FILE = "non_normalized_ranked_poker_hands.txt";
+    static final String DEFAULT_BINARY_FILE = "non_normalized_ranked_poker_hands.bin";
+
+    // Binary table layout, written by PokerHandGenerator.generateBinaryTable
+    static final int BINARY_MAGIC = 0x524F4C50; // "PLOR" read little-endian
+    static final int BINARY_VERSION = 1;
+    static final int BINARY_HEADER_BYTES = 16;
+
+    // BINOMIAL[n][k] = C(n, k), used for the colex perfect hash of a 5-card set
+    private static final int[][] BINOMIAL = new int[Card.NUM_CARDS + 1][6];
+
+    static {
+        for (int n = 0; n <= Card.NUM_CARDS; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, 5); k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    // Rank of every 5-card hand indexed by handIndex; 0 marks a hand missing from the loaded file.
+    // Backed by a memory-mapped file when the binary table is available, otherwise by a heap array.
+    private ShortBuffer handRankings = ShortBuffer.wrap(new short[NUM_HANDS]);
 
     public PokerHandCache() {
-        this("non_normalized_ranked_poker_hands.txt");
+        if (loadBinaryTable(DEFAULT_BINARY_FILE) || loadHandRankings(DEFAULT_RANKINGS_FILE)) {
+            return;
+        }
+        System.out.println("Computing hand rankings with PokerHandGenerator instead");
+        handRankings = ShortBuffer.wrap(new PokerHandGenerator().computeHandRanks());
     }
 
+    /**
+     * Load rankings from a text file on the classpath, or from a binary table (".bin")
+     * given either as a filesystem path or as a classpath resource
+     */
     public PokerHandCache(String filename) {
-        loadHandRankings(filename);
+        if (filename.endsWith(".bin")) {
+            loadBinaryTable(filename);
+        } else {
+            loadHandRankings(filename);
+        }
+    }
+
+    private boolean loadBinaryTable(String filename) {
+        try {
+            ByteBuffer table;
+            Path path = Paths.get(filename);
+            URL resource = getClass().getClassLoader().getResource(filename);
+            if (!Files.isRegularFile(path) && resource != null && "file".equals(resource.getProtocol())) {
+                path = Paths.get(resource.toURI());
+            }
+            
+            if (Files.isRegularFile(path)) {
+                // Mapped read-only, so every JVM on the host shares the same page cache copy
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            } else if (resource != null) {
+                // Packaged inside a jar: a single bulk read, no per-entry parsing
+                try (InputStream is = resource.openStream()) {
+                    byte[] bytes = is.readAllBytes();
+                    table = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+                }
+            } else {
+                return false;
+            }
+            
+            handRankings = verifyBinaryTable(table.order(ByteOrder.LITTLE_ENDIAN));
+            System.out.println("Loaded binary hand rank table " + filename + " (" + NUM_HANDS + " hands)");
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error loading binary hand rank table " + filename + ": " + e.getMessage());
+            return false;
+        }
     }
 
-    private void loadHandRankings(String filename) {
+    private ShortBuffer verifyBinaryTable(ByteBuffer table) throws IOException {
+        if (table.remaining() != BINARY_HEADER_BYTES + NUM_HANDS * 2) {
+            throw new IOException("unexpected table size " + table.remaining());
+        }
+        if (table.getInt(0) != BINARY_MAGIC) {
+            throw new IOException("not a hand rank table");
+        }
+        if (table.getInt(4) != BINARY_VERSION) {
+            throw new IOException("unsupported table version " + table.getInt(4));
+        }
+        if (table.getInt(8) != NUM_HANDS) {
+            throw new IOException("unexpected entry count " + table.getInt(8));
+        }
+        
+        ByteBuffer payload = table.duplicate().position(BINARY_HEADER_BYTES).slice().order(ByteOrder.LITTLE_ENDIAN);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != table.getInt(12)) {
+            throw new IOException("checksum mismatch");
+        }
+        return payload.asShortBuffer();
+    }
+
+    private boolean loadHandRankings(String filename) {
+        InputStream is = getClass().getClassLoader().getResourceAsStream(filename);
+        if (is == null) {
+            System.err.println("Hand rankings file not found on classpath: " + filename);
+            return false;
+        }
         int lineCount = 0;
-        try (InputStream is = getClass().getClassLoader().getResourceAsStream(filename);
+        int loaded = 0;
+        try (is;
              BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
             String line = reader.readLine(); // Skip header
             while ((line = reader.readLine()) != null) {
                 lineCount++;
-                String[] parts = line.split(",");
-                if (parts.length >= 2) {
-                    String handKey = parts[0];
-                    int rank = Integer.parseInt(parts[1]);
-                    handRankings.put(handKey, rank);
+                int handEnd = line.indexOf(',');
+                int rankEnd = line.indexOf(',', handEnd + 1);
+                if (handEnd > 0) {
+                    long handKey = CardSet.of(Card.parseCards(line.substring(0, handEnd)));
+                    int rank = Integer.parseInt(line, handEnd + 1, rankEnd < 0 ? line.length() : rankEnd, 10);
+                    if (rank <= 0 || rank > Short.MAX_VALUE) {
+                        throw new IllegalArgumentException("Hand rank " + rank + " out of table range on line " + lineCount);
+                    }
+                    if (handRankings.get(handIndex(handKey)) == 0) {
+                        loaded++;
+                    }
+                    handRankings.put(handIndex(handKey), (short) rank);
                 }
             }
-            System.out.println("Loaded " + handRankings.size() + " unique hand rankings from cache (" + lineCount + " lines read)");
+            System.out.println("Loaded " + loaded + " unique hand rankings from cache (" + lineCount + " lines read)");
+            return true;
         } catch (Exception e) {
             System.err.println("Error loading hand rankings: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Colex index of a 5-card set: sum of C(card_i, i + 1) over the cards in ascending order.
+     * This is a perfect hash onto 0..NUM_HANDS-1.
+     */
+    public static int handIndex(long hand) {
+        int index = 0;
+        for (int k = 1; k <= 5; k++) {
+            index += BINOMIAL[Long.numberOfTrailingZeros(hand)][k];
+            hand &= hand - 1;
         }
+        return index;
     }
 
     public int getHandRank(String[] cards) {
         if (cards.length != 5) {
             throw new IllegalArgumentException("Must have exactly 5 cards for hand evaluation");
         }
-        String handKey = sortAndFormatHand(cards);
-        Integer rank = handRankings.get(handKey);
-        if (rank == null) {
-            throw new RuntimeException("Hand not found in cache: " + handKey);
-        }
-        return rank;
+        return getHandRank(CardSet.of(Card.parseCards(cards)));
     }
 
-    private String sortAndFormatHand(String[] hand) {
-        // Sort by rank (high to low), then by suit (s > h > d > c)
-        String[] sorted = hand.clone();
-        Arrays.sort(sorted, (a, b) -> {
-            int rankA = getRankValue(a.charAt(0));
-            int rankB = getRankValue(b.charAt(0));
-            if (rankA != rankB) {
-                return Integer.compare(rankB, rankA); // High to low
-            }
-            // Suit order: s > h > d > c
-            return suitOrder(b.charAt(1)) - suitOrder(a.charAt(1));
-        });
-        StringBuilder sb = new StringBuilder();
-        for (String card : sorted) {
-            sb.append(card);
-        }
-        return sb.toString();
+    public int getHandRank(int c0, int c1, int c2, int c3, int c4) {
+        return getHandRank((1L << c0) | (1L << c1) | (1L << c2) | (1L << c3) | (1L << c4));
     }
 
-    private int getRankValue(char rank) {
-        switch (rank) {
-            case 'A': return 14;
-            case 'K': return 13;
-            case 'Q': return 12;
-            case 'J': return 11;
-            case 'T': return 10;
-            default: return Character.getNumericValue(rank);
+    @Override
+    public int getHandRank(long hand) {
+        if (Long.bitCount(hand) != 5) {
+            throw new IllegalArgumentException("Must have exactly 5 distinct cards for hand evaluation");
         }
-    }
-
-    private int suitOrder(char suit) {
-        switch (suit) {
-            case 's': return 3; // spades highest
-            case 'h': return 2; // hearts
-            case 'd': return 1; // diamonds
-            case 'c': return 0; // clubs lowest
-            default: return -1;
+        int rank = handRankings.get(handIndex(hand));
+        if (rank == 0) {
+            throw new RuntimeException("Hand not found in cache: " + CardSet.toString(hand));
         }
+        return rank;
     }
 
     public int getHandRank(String handString) {
         if (handString.length() != 10) { // 5 cards * 2 chars each
             throw new IllegalArgumentException("Hand string must be exactly 10 characters");
         }
-        String[] cards = new String[5];
-        for (int i = 0; i < 5; i++) {
-            cards[i] = handString.substring(i * 2, (i + 1) * 2);
-        }
-        return getHandRank(cards);
+        return getHandRank(CardSet.of(Card.parseCards(handString)));
     }
-} 
\ No newline at end of file
+}
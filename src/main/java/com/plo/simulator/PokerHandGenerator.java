@@ -1,9 +1,14 @@
 package com.plo.simulator;
 
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.util.*;
+import java.util.zip.CRC32;
 
 public class PokerHandGenerator {
     
@@ -13,6 +18,41 @@ public class PokerHandGenerator {
     public static void main(String[] args) {
         PokerHandGenerator generator = new PokerHandGenerator();
         generator.generateAllHands("non_normalized_ranked_poker_hands.txt");
+        generator.generateBinaryTable(PokerHandCache.DEFAULT_BINARY_FILE);
+    }
+    
+    /**
+     * Write the rank of every 5-card hand in the binary format read by PokerHandCache:
+     * a 16-byte little-endian header (magic, version, entry count, CRC32 of the payload)
+     * followed by one little-endian short per hand in handIndex order.
+     */
+    public void generateBinaryTable(String filename) {
+        System.out.println("Generating binary hand rank table...");
+        
+        short[] handRanks = computeHandRanks();
+        ByteBuffer payload = ByteBuffer.allocate(handRanks.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        payload.asShortBuffer().put(handRanks);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        
+        ByteBuffer header = ByteBuffer.allocate(PokerHandCache.BINARY_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(PokerHandCache.BINARY_MAGIC)
+              .putInt(PokerHandCache.BINARY_VERSION)
+              .putInt(handRanks.length)
+              .putInt((int) crc.getValue())
+              .flip();
+        
+        try (FileChannel channel = new FileOutputStream(filename).getChannel()) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (payload.hasRemaining()) {
+                channel.write(payload);
+            }
+            System.out.println("Binary table with " + handRanks.length + " hands written to " + filename);
+        } catch (IOException e) {
+            System.err.println("Error writing to file: " + e.getMessage());
+        }
     }
     
     public void generateAllHands(String filename) {
@@ -54,6 +94,32 @@ public class PokerHandGenerator {
         }
     }
     
+    /**
+     * Compute the rank of every 5-card hand from card bitmasks, indexed by
+     * {@link PokerHandCache#handIndex(long)}. BitmaskHandEvaluator uses the same ordering as
+     * generateAllHands (hand type first, then card ranks high to low), so the numbers match the text files.
+     */
+    public short[] computeHandRanks() {
+        BitmaskHandEvaluator evaluator = new BitmaskHandEvaluator();
+        short[] handRanks = new short[PokerHandCache.NUM_HANDS];
+        
+        // Nested loops with the highest card outermost enumerate hands in colex order
+        int index = 0;
+        for (int c4 = 4; c4 < Card.NUM_CARDS; c4++) {
+            for (int c3 = 3; c3 < c4; c3++) {
+                for (int c2 = 2; c2 < c3; c2++) {
+                    for (int c1 = 1; c1 < c2; c1++) {
+                        for (int c0 = 0; c0 < c1; c0++) {
+                            long hand = (1L << c0) | (1L << c1) | (1L << c2) | (1L << c3) | (1L << c4);
+                            handRanks[index++] = (short) evaluator.getHandRank(hand);
+                        }
+                    }
+                }
+            }
+        }
+        return handRanks;
+    }
+    
     private String sortAndFormatHand(String[] hand) {
         // Sort by rank (high to low), then by suit (s > h > d > c)
         String[] sorted = hand.clone();
@@ -0,0 +1,114 @@
+package com.plo.simulator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every 4-card hand ordered by strength according to a hole card rankings CSV (as written by
+ * {@link PLOHoleCardRanker}), for percentile range cut-offs. The CSV ranks one hand per
+ * suit-isomorphism class, so each hand takes the rank of its class and all hands of one class
+ * sit together. Built once per rankings file and shared.
+ */
+final class RankingPercentiles {
+
+    static final String DEFAULT_RANKINGS = "plo_hand_rankings_sd05_ci1.csv";
+
+    private static final Map<String, RankingPercentiles> LOADED = new ConcurrentHashMap<>();
+
+    // Combo indexes from strongest to weakest, with the bounds of each one's class in that order
+    private final int[] sortedCombos = new int[ComboIndex.NUM_COMBOS];
+    private final int[] classStart = new int[ComboIndex.NUM_COMBOS];
+    private final int[] classEnd = new int[ComboIndex.NUM_COMBOS];
+
+    static RankingPercentiles forRankings(String rankingsResource) {
+        return LOADED.computeIfAbsent(rankingsResource, RankingPercentiles::new);
+    }
+
+    private RankingPercentiles(String rankingsResource) {
+        Map<String, Integer> rowRanks = loadRowRanks(rankingsResource);
+        int[] classRanks = new int[HandNormalizer.NUM_HAND_CLASSES];
+        Arrays.fill(classRanks, Integer.MAX_VALUE);
+        for (Map.Entry<String, Integer> row : rowRanks.entrySet()) {
+            int classId = HandNormalizer.handClass(row.getKey());
+            classRanks[classId] = Math.min(classRanks[classId], row.getValue());
+        }
+        // Files written before hand classes existed merged some classes under one string
+        // normalization; those classes take the rank of their normalized form
+        HandNormalizer normalizer = new HandNormalizer();
+        String[] cards = new String[4];
+        for (int classId = 0; classId < classRanks.length; classId++) {
+            if (classRanks[classId] == Integer.MAX_VALUE) {
+                int[] hand = CardSet.toArray(HandNormalizer.handClassMask(classId));
+                for (int c = 0; c < 4; c++) {
+                    cards[c] = Card.toString(hand[c]);
+                }
+                String normalized = String.join("", normalizer.normalizeCards(cards));
+                // Hands missing from the file count as weakest
+                classRanks[classId] = rowRanks.getOrDefault(normalized, Integer.MAX_VALUE);
+            }
+        }
+
+        // Rank in the high bits, combo index in the low bits: one primitive sort orders both
+        long[] keyed = new long[ComboIndex.NUM_COMBOS];
+        for (int i = 0; i < ComboIndex.NUM_COMBOS; i++) {
+            long rank = classRanks[HandNormalizer.handClass(ComboIndex.combo(i))];
+            keyed[i] = rank << 32 | i;
+        }
+        Arrays.sort(keyed);
+
+        int start = 0;
+        for (int i = 0; i < keyed.length; i++) {
+            sortedCombos[i] = (int) keyed[i];
+            if (i > 0 && keyed[i] >>> 32 != keyed[i - 1] >>> 32) {
+                Arrays.fill(classEnd, start, i, i);
+                start = i;
+            }
+            classStart[i] = start;
+        }
+        Arrays.fill(classEnd, start, keyed.length, keyed.length);
+    }
+
+    private static Map<String, Integer> loadRowRanks(String rankingsResource) {
+        InputStream is = RankingPercentiles.class.getClassLoader().getResourceAsStream(rankingsResource);
+        if (is == null) {
+            throw new IllegalArgumentException("Hand rankings file not found on classpath: " + rankingsResource);
+        }
+        Map<String, Integer> rowRanks = new HashMap<>();
+        try (is;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
+            String line = reader.readLine(); // Skip header
+            while ((line = reader.readLine()) != null) {
+                int rankEnd = line.indexOf(',');
+                int handEnd = line.indexOf(',', rankEnd + 1);
+                if (rankEnd > 0 && handEnd > rankEnd) {
+                    rowRanks.put(line.substring(rankEnd + 1, handEnd), Integer.parseInt(line, 0, rankEnd, 10));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalArgumentException("Error reading hand rankings " + rankingsResource + ": " + e.getMessage(), e);
+        }
+        return rowRanks;
+    }
+
+    /**
+     * Set the bits of every hand ranked between the two percentiles (0 = strongest, 100 =
+     * weakest). Hand classes are never split, so a class straddling a bound is left out and the
+     * result never covers more than the requested share of hands.
+     */
+    void addBetween(double fromPercent, double toPercent, long[] words) {
+        int from = (int) Math.round(fromPercent / 100 * ComboIndex.NUM_COMBOS);
+        int to = (int) Math.round(toPercent / 100 * ComboIndex.NUM_COMBOS);
+        for (int i = from; i < to; i++) {
+            if (classStart[i] >= from && classEnd[i] <= to) {
+                int combo = sortedCombos[i];
+                words[combo >>> 6] |= 1L << combo;
+            }
+        }
+    }
+}
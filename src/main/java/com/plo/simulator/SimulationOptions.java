@@ -0,0 +1,65 @@
+package com.plo.simulator;
+
+/**
+ * Precision policy for an adaptive simulation. A run stops as soon as the estimate meets both
+ * targets, and in any case once it reaches maxIterations or runs out of its time budget.
+ *
+ * Targets are checked against the Wilson score interval rather than p +/- 1.96 SD, so win rates
+ * near 0 or 1, whose plain standard deviation collapses after a few samples, cannot stop early.
+ *
+ * The priority decides how the engine's scheduler serves the run while other simulations
+ * compete for the cores.
+ */
+public class SimulationOptions {
+
+    public static final double DEFAULT_STOPPING_SD = 0.005; // 0.5% standard deviation threshold
+    public static final double DEFAULT_STOPPING_CI = 0.01; // 1% confidence interval threshold
+    public static final long NO_TIME_BUDGET = 0;
+
+    public static final SimulationOptions DEFAULT =
+            new SimulationOptions(DEFAULT_STOPPING_SD, DEFAULT_STOPPING_CI, Integer.MAX_VALUE, NO_TIME_BUDGET);
+
+    /** Largest acceptable standard deviation of the estimate */
+    public final double targetStandardDeviation;
+    /** Largest acceptable half-width of the 95% confidence interval */
+    public final double targetConfidenceInterval;
+    /** Hard cap on runouts, whatever the precision reached */
+    public final int maxIterations;
+    /** Wall-clock budget in milliseconds, or NO_TIME_BUDGET */
+    public final long timeBudgetMillis;
+    /** Scheduling class of the run */
+    public final SimulationScheduler.Priority priority;
+
+    public SimulationOptions(double targetStandardDeviation, double targetConfidenceInterval, int maxIterations, long timeBudgetMillis) {
+        this(targetStandardDeviation, targetConfidenceInterval, maxIterations, timeBudgetMillis,
+                SimulationScheduler.Priority.INTERACTIVE);
+    }
+
+    public SimulationOptions(double targetStandardDeviation, double targetConfidenceInterval, int maxIterations, long timeBudgetMillis,
+                             SimulationScheduler.Priority priority) {
+        if (!(targetStandardDeviation > 0) || !(targetConfidenceInterval > 0)) {
+            throw new IllegalArgumentException("Precision targets must be positive");
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("Max iterations must be positive, got " + maxIterations);
+        }
+        if (timeBudgetMillis < 0) {
+            throw new IllegalArgumentException("Time budget must not be negative, got " + timeBudgetMillis);
+        }
+        if (priority == null) {
+            throw new IllegalArgumentException("Priority must not be null");
+        }
+        this.targetStandardDeviation = targetStandardDeviation;
+        this.targetConfidenceInterval = targetConfidenceInterval;
+        this.maxIterations = maxIterations;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.priority = priority;
+    }
+
+    /**
+     * The same precision policy under another scheduling class
+     */
+    public SimulationOptions withPriority(SimulationScheduler.Priority priority) {
+        return new SimulationOptions(targetStandardDeviation, targetConfidenceInterval, maxIterations, timeBudgetMillis, priority);
+    }
+}
@@ -0,0 +1,253 @@
+package com.plo.simulator;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of worker threads shared by every simulation submitted to it, so concurrent
+ * requests never run more threads than there are cores and never touch the common pool.
+ *
+ * A simulation is a job that runs one batch (about a millisecond) per turn. Up to
+ * {@code numThreads} jobs of each priority are active at once and the threads cycle through
+ * them a turn at a time, which shares the cores fairly between them. Later jobs wait in FIFO
+ * order for an active slot, so under load requests finish in arrival order instead of all
+ * slowing down together. INTERACTIVE jobs get the threads first; BATCH jobs still get one turn
+ * in BATCH_TURN_INTERVAL so they cannot starve.
+ *
+ * At most {@code queueCapacity} jobs may be admitted and unfinished at once; beyond that,
+ * submit throws RejectedExecutionException so callers can shed load or retry later.
+ */
+public class SimulationScheduler implements AutoCloseable {
+
+    public enum Priority {
+        /** Latency-sensitive requests, e.g. a user waiting on one matchup */
+        INTERACTIVE,
+        /** Throughput work such as ranking runs, served with whatever INTERACTIVE leaves */
+        BATCH
+    }
+
+    /**
+     * Unit of work run by the scheduler: each turn does a slice of work on the calling worker
+     * thread. Jobs keep any per-thread state in slots indexed by workerIndex, which is in
+     * [0, threadCount()) and is only ever used by one thread at a time.
+     */
+    interface Job<T> {
+        /**
+         * Run one slice of work; false once the job needs no further turns
+         */
+        boolean runSlice(int workerIndex);
+
+        /**
+         * Final result, requested once no slice is running any more
+         */
+        T result();
+    }
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int BATCH_TURN_INTERVAL = 8;
+
+    private final int numThreads;
+    private final int queueCapacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final ArrayDeque<Task<?>>[] waiting;
+    private final ArrayDeque<Task<?>>[] active;
+    private final int[] activeCount;
+    private int admitted;
+    private long turns;
+    private boolean closed;
+
+    private static final class DefaultHolder {
+        static final SimulationScheduler INSTANCE =
+                new SimulationScheduler(Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Scheduler used by engines that are not given one: one thread per core, shared by every
+     * such engine in the JVM
+     */
+    public static SimulationScheduler defaultScheduler() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public SimulationScheduler(int numThreads, int queueCapacity) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive, got " + numThreads);
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive, got " + queueCapacity);
+        }
+        this.numThreads = numThreads;
+        this.queueCapacity = queueCapacity;
+        int numPriorities = Priority.values().length;
+        this.waiting = new ArrayDeque[numPriorities];
+        this.active = new ArrayDeque[numPriorities];
+        this.activeCount = new int[numPriorities];
+        for (int p = 0; p < numPriorities; p++) {
+            waiting[p] = new ArrayDeque<>();
+            active[p] = new ArrayDeque<>();
+        }
+
+        for (int t = 0; t < numThreads; t++) {
+            int workerIndex = t;
+            Thread thread = new Thread(() -> work(workerIndex), "plo-simulation-" + t);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public int threadCount() {
+        return numThreads;
+    }
+
+    /**
+     * Admit a job, or throw RejectedExecutionException if queueCapacity jobs are already
+     * unfinished or the scheduler is closed. The future completes on a worker thread with the
+     * job's result, or exceptionally if a slice throws.
+     */
+    <T> CompletableFuture<T> submit(Job<T> job, Priority priority) {
+        Task<T> task = new Task<>(job, priority);
+        lock.lock();
+        try {
+            if (closed) {
+                throw new RejectedExecutionException("Simulation scheduler is closed");
+            }
+            if (admitted >= queueCapacity) {
+                throw new RejectedExecutionException("Simulation scheduler is saturated: "
+                        + admitted + " simulations queued or running");
+            }
+            admitted++;
+            waiting[priority.ordinal()].addLast(task);
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        return task.result;
+    }
+
+    /**
+     * Reject new jobs; admitted jobs still run to completion, after which the threads exit
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work(int workerIndex) {
+        while (true) {
+            Task<?> task;
+            lock.lock();
+            try {
+                while ((task = nextTask()) == null) {
+                    if (closed && admitted == 0) {
+                        return;
+                    }
+                    workAvailable.awaitUninterruptibly();
+                }
+                // Back of the queue straight away, so idle threads can join in on this job
+                task.inFlight++;
+                active[task.priority.ordinal()].addLast(task);
+                workAvailable.signal();
+            } finally {
+                lock.unlock();
+            }
+
+            boolean more;
+            Throwable failure = null;
+            try {
+                more = task.job.runSlice(workerIndex);
+            } catch (Throwable e) {
+                more = false;
+                failure = e;
+            }
+
+            boolean finish;
+            lock.lock();
+            try {
+                task.inFlight--;
+                if (!more) {
+                    task.done = true;
+                }
+                if (failure != null && task.failure == null) {
+                    task.failure = failure;
+                }
+                // The last thread out of a finished job releases its slot
+                finish = task.done && task.inFlight == 0 && !task.finished;
+                if (finish) {
+                    task.finished = true;
+                    activeCount[task.priority.ordinal()]--;
+                    admitted--;
+                    workAvailable.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (finish) {
+                task.complete();
+            }
+        }
+    }
+
+    /**
+     * Next job to give a turn to, promoting waiting jobs into free active slots and skipping
+     * jobs that have finished since they were queued; null if there is none. Called under lock.
+     */
+    private Task<?> nextTask() {
+        for (Priority priority : Priority.values()) {
+            int p = priority.ordinal();
+            while (activeCount[p] < numThreads && !waiting[p].isEmpty()) {
+                active[p].addLast(waiting[p].pollFirst());
+                activeCount[p]++;
+            }
+        }
+        boolean batchTurn = ++turns % BATCH_TURN_INTERVAL == 0;
+        Task<?> task = pollLive(batchTurn ? Priority.BATCH : Priority.INTERACTIVE);
+        return task != null ? task : pollLive(batchTurn ? Priority.INTERACTIVE : Priority.BATCH);
+    }
+
+    private Task<?> pollLive(Priority priority) {
+        Task<?> task;
+        while ((task = active[priority.ordinal()].pollFirst()) != null && task.done) {
+            // Finished while queued; its last thread out releases the slot
+        }
+        return task;
+    }
+
+    private static final class Task<T> {
+        final Job<T> job;
+        final Priority priority;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        // Guarded by the scheduler lock
+        int inFlight;
+        boolean done;
+        boolean finished;
+        Throwable failure;
+
+        Task(Job<T> job, Priority priority) {
+            this.job = job;
+            this.priority = priority;
+        }
+
+        void complete() {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            try {
+                result.complete(job.result());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.plo.simulator;
+
+import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class EquityCacheTest {
+
+    @Test
+    public void testCacheKey() {
+        System.out.println("=== Cache Key Test ===");
+
+        EquityCache.Key key = EquityCache.key("AsKsQhJh", Arrays.asList("Td9d8c7c", "6s6h5d5c"), "2s3h4d", null);
+        // Spades <-> hearts, diamonds <-> clubs, villains swapped
+        EquityCache.Key isomorphic = EquityCache.key("AhKhQsJs", Arrays.asList("6h6s5c5d", "Tc9c8d7d"), "2h3s4c", "");
+        System.out.println(key + " == " + isomorphic);
+        if (!key.equals(isomorphic) || key.hashCode() != isomorphic.hashCode()) {
+            throw new AssertionError("Suit-isomorphic matchups got different keys: " + key + " vs " + isomorphic);
+        }
+        // Moving the flop's spade onto the hero's hearts is a different matchup
+        EquityCache.Key different = EquityCache.key("AsKsQhJh", Arrays.asList("Td9d8c7c", "6s6h5d5c"), "2h3s4d", null);
+        if (key.equals(different)) {
+            throw new AssertionError("Different matchups share the key " + key);
+        }
+        if (EquityCache.key("AsKsQhJh", Arrays.asList("Td9d8c"), null, null) != null) {
+            throw new AssertionError("A 3-card villain should not get a key");
+        }
+        // No villain hands means one random villain, whether null or empty
+        EquityCache.Key randomVillain = EquityCache.key("AsKsQhJh", null, null, null);
+        if (!randomVillain.equals(EquityCache.key("AhKhQsJs", new ArrayList<>(), null, null))) {
+            throw new AssertionError("Null and empty villain lists got different keys: " + randomVillain);
+        }
+    }
+
+    @Test
+    public void testCacheHitsAndEviction() throws Exception {
+        System.out.println("=== Equity Cache Test ===");
+
+        AtomicLong now = new AtomicLong(1_000_000);
+        EquityCache cache = new EquityCache(new PLOSimulationEngine(), 2, 60_000, now::get);
+
+        PLOSimulationEngine.SimulationResult first = cache.simulateAdaptive("KsKh8d7c", Arrays.asList("AsAc5d5c"), "Qd6h2c", null);
+        long start = System.nanoTime();
+        PLOSimulationEngine.SimulationResult second = cache.simulateAdaptive("KhKs8c7d", Arrays.asList("AhAd5c5d"), "Qc6s2d", null);
+        long hitNanos = System.nanoTime() - start;
+        System.out.printf("%.4f%% (%s), isomorphic hit in %d us; %s%n",
+                first.winRate * 100, first.stopReason, hitNanos / 1000, cache.stats());
+        if (second != first || cache.stats().hits != 1 || cache.stats().misses != 1) {
+            throw new AssertionError("Suit-isomorphic query was not served from the cache: " + cache.stats());
+        }
+        // A null villain list is the engine's one random villain, like an empty one
+        EquityCache randomVillainCache = new EquityCache(new PLOSimulationEngine(), 2, 60_000, now::get);
+        PLOSimulationEngine.SimulationResult random = randomVillainCache.simulateAdaptive("AsKsQhJh", null);
+        if (randomVillainCache.simulateAdaptive("AhKhQsJs", new ArrayList<>()) != random || randomVillainCache.stats().hits != 1) {
+            throw new AssertionError("Random villain query was not served from the cache: " + randomVillainCache.stats());
+        }
+
+        // Least recently used goes first: add a second entry, touch the first, then add a third
+        cache.simulateAdaptive("QsQh8d7c", Arrays.asList("AsAc5d5c"), "Kd6h2c", null);
+        cache.simulateAdaptive("KsKh8d7c", Arrays.asList("AsAc5d5c"), "Qd6h2c", null);
+        cache.simulateAdaptive("JsJh8d7c", Arrays.asList("AsAc5d5c"), "Kd6h2c", null);
+        EquityCache.Stats stats = cache.stats();
+        System.out.println(stats);
+        if (stats.size != 2 || stats.evictions != 1 || stats.hits != 2) {
+            throw new AssertionError("Unexpected eviction counts: " + stats);
+        }
+
+        // Persisted entries survive a restart, and expire on the original schedule
+        Path file = Files.createTempFile("equity-cache", ".csv");
+        try {
+            cache.save(file);
+            EquityCache restarted = new EquityCache(new PLOSimulationEngine(), 10, 60_000, now::get);
+            int loaded = restarted.load(file);
+            PLOSimulationEngine.SimulationResult reloaded = restarted.simulateAdaptive("KsKh8d7c", Arrays.asList("AsAc5d5c"), "Qd6h2c", null);
+            if (loaded != 2 || restarted.stats().hits != 1 || reloaded.winRate != first.winRate
+                    || reloaded.stopReason != first.stopReason) {
+                throw new AssertionError("Reloaded cache lost entries: " + loaded + ", " + restarted.stats());
+            }
+
+            now.addAndGet(60_000);
+            restarted.simulateAdaptive("KsKh8d7c", Arrays.asList("AsAc5d5c"), "Qd6h2c", null);
+            EquityCache emptyRestart = new EquityCache(new PLOSimulationEngine(), 10, 60_000, now::get);
+            System.out.println("After TTL: " + restarted.stats());
+            if (restarted.stats().expirations != 1 || emptyRestart.load(file) != 0) {
+                throw new AssertionError("Expired entries were served: " + restarted.stats());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
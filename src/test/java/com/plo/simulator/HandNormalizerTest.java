@@ -114,4 +114,121 @@ public class HandNormalizerTest {
         }
         System.out.println("=== All normalizeHoleCards tests passed ===\n");
     }
+
+    @Test
+    public void testHandClasses() {
+        System.out.println("=== Testing handClass ===");
+        // Suit relabellings of one hand share a class
+        String[][] sameClass = {
+            {"KdKh5h3d", "KsKh5s3h"},
+            {"KdKh5h3h", "KsKh5h3h"},
+            {"AhKsKhJd", "AsKhKsJd"},
+            {"2c3d4h5s", "5c4d3h2s"}
+        };
+        for (String[] pair : sameClass) {
+            if (HandNormalizer.handClass(pair[0]) != HandNormalizer.handClass(pair[1])) {
+                throw new AssertionError(pair[0] + " and " + pair[1] + " should share a class");
+            }
+        }
+        if (HandNormalizer.handClass("KdKh5h3d") == HandNormalizer.handClass("KdKh5h3h")) {
+            throw new AssertionError("KdKh5h3d and KdKh5h3h are not suit-isomorphic");
+        }
+        if (!HandNormalizer.handClassRepresentative(HandNormalizer.handClass("AdAcKdKc")).equals("AsAhKsKh")
+                || !HandNormalizer.handClassRepresentative(0).equals("AsKsQsJs")) {
+            throw new AssertionError("Unexpected representatives");
+        }
+
+        // Every hand lands in a class whose representative maps back to it
+        int[] sizes = new int[HandNormalizer.NUM_HAND_CLASSES];
+        for (int index = 0; index < ComboIndex.NUM_COMBOS; index++) {
+            sizes[HandNormalizer.handClass(ComboIndex.combo(index))]++;
+        }
+        for (int classId = 0; classId < HandNormalizer.NUM_HAND_CLASSES; classId++) {
+            String representative = HandNormalizer.handClassRepresentative(classId);
+            if (HandNormalizer.handClass(representative) != classId || sizes[classId] != HandNormalizer.handClassSize(classId)) {
+                throw new AssertionError("Class " + classId + " (" + representative + ") does not round trip");
+            }
+        }
+
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int index = 0; index < ComboIndex.NUM_COMBOS; index++) {
+                checksum += HandNormalizer.handClass(ComboIndex.combo(index));
+            }
+        }
+        System.out.printf("%.1f ns per lookup (checksum %d)%n", (System.nanoTime() - start) / (10.0 * ComboIndex.NUM_COMBOS), checksum);
+    }
+
+    /**
+     * Smallest (hero, board) pair of masks over all 24 relabellings of the suits
+     */
+    private static String smallestRelabelling(long hero, long board) {
+        long[] best = null;
+        for (int a = 0; a < 4; a++) {
+            for (int b = 0; b < 4; b++) {
+                for (int c = 0; c < 4; c++) {
+                    int d = 6 - a - b - c;
+                    if (a == b || a == c || b == c || d < 0 || d > 3 || d == a || d == b || d == c) {
+                        continue;
+                    }
+                    int[] permutation = {a, b, c, d};
+                    long[] candidate = new long[2];
+                    for (int suit = 0; suit < 4; suit++) {
+                        candidate[0] |= (long) CardSet.suitRanks(hero, suit) << (permutation[suit] * Card.NUM_RANKS);
+                        candidate[1] |= (long) CardSet.suitRanks(board, suit) << (permutation[suit] * Card.NUM_RANKS);
+                    }
+                    if (best == null || Arrays.compare(candidate, best) < 0) {
+                        best = candidate;
+                    }
+                }
+            }
+        }
+        return Arrays.toString(best);
+    }
+
+    @Test
+    public void testCanonicalSituation() {
+        System.out.println("=== Testing canonicalSituation ===");
+        // Every flop, and every flop next to one hero hand, collapses to the known class counts
+        long hero = CardSet.parse("AsKsQhJh");
+        Set<String> flops = new HashSet<>();
+        Set<String> heroFlops = new HashSet<>();
+        Set<String> bruteForceHeroFlops = new HashSet<>();
+        for (int a = 0; a < 52; a++) {
+            for (int b = a + 1; b < 52; b++) {
+                for (int c = b + 1; c < 52; c++) {
+                    long flop = CardSet.of(new int[] {a, b, c});
+                    flops.add(Arrays.toString(HandNormalizer.canonicalSituation(CardSet.EMPTY, flop, CardSet.EMPTY)));
+                    if ((flop & hero) == 0) {
+                        heroFlops.add(Arrays.toString(HandNormalizer.canonicalSituation(hero, flop, CardSet.EMPTY)));
+                        bruteForceHeroFlops.add(smallestRelabelling(hero, flop));
+                    }
+                }
+            }
+        }
+        System.out.println(flops.size() + " flops, " + heroFlops.size() + " flops next to AsKsQhJh");
+        if (flops.size() != 1755 || heroFlops.size() != bruteForceHeroFlops.size()) {
+            throw new AssertionError("Expected 1755 flops and " + bruteForceHeroFlops.size() + " hero flops, got "
+                    + flops.size() + " and " + heroFlops.size());
+        }
+
+        // Relabelled suits give the same key; a different seat order does not
+        long[] key = HandNormalizer.canonicalSituation("AsKsQhJh", Arrays.asList("Td9d8c7c", "6s6h5d5c"), "2s3h4d", "Kc");
+        long[] relabelled = HandNormalizer.canonicalSituation("AhKhQsJs", Arrays.asList("Tc9c8d7d", "6h6s5c5d"), "2h3s4c", "Kd");
+        long[] reseated = HandNormalizer.canonicalSituation("AsKsQhJh", Arrays.asList("6s6h5d5c", "Td9d8c7c"), "2s3h4d", "Kc");
+        if (!Arrays.equals(key, relabelled) || Arrays.equals(key, reseated)) {
+            throw new AssertionError("Unexpected keys " + Arrays.toString(key) + ", " + Arrays.toString(relabelled));
+        }
+
+        long[] villains = {CardSet.parse("Td9d8c7c"), CardSet.parse("6s6h5d5c")};
+        long board = CardSet.parse("2s3h4d");
+        long checksum = 0;
+        int calls = 1_000_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            checksum += HandNormalizer.canonicalSituation(hero, board, i & 1, villains)[0];
+        }
+        System.out.printf("%.1f ns per key (checksum %d)%n", (System.nanoTime() - start) / (double) calls, checksum);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.plo.simulator;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class HandRangeTest {
+
+    @Test
+    public void testAliasSampling() {
+        System.out.println("=== Range Sampling Test ===");
+
+        Map<String, Double> weights = new LinkedHashMap<>();
+        weights.put("AsAdKsKd", 1.0);
+        weights.put("QhJhTd9d", 2.0);
+        weights.put("7c7h8c8h", 7.0);
+        weights.put("2c3d4h5s", 0.0); // Left out
+        HandRange range = HandRange.weighted(weights);
+        if (range.size() != 3 || range.totalWeight() != 10 || range.weight("KdKsAdAs") != 1) {
+            throw new AssertionError("Unexpected range: " + range.size() + " hands, weight " + range.totalWeight());
+        }
+
+        // Draw frequencies follow the weights
+        checkFrequencies(range.sampler(CardSet.EMPTY), new double[] {0.1, 0.2, 0.7});
+
+        // A dead 7c blocks the heaviest hand; the others keep their relative weights
+        HandRange.Sampler blocked = range.sampler(CardSet.parse("7c"));
+        checkFrequencies(blocked, new double[] {1.0 / 3, 2.0 / 3});
+        if (range.sampler(CardSet.parse("7c")) != blocked) {
+            throw new AssertionError("Samplers should be cached per dead-card mask");
+        }
+    }
+
+    private void checkFrequencies(HandRange.Sampler sampler, double[] expected) {
+        SplittableRandom random = new SplittableRandom(42);
+        int draws = 200000;
+        int[] counts = new int[sampler.size()];
+        for (int i = 0; i < draws; i++) {
+            counts[sampler.sample(random)]++;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            double frequency = (double) counts[i] / draws;
+            System.out.printf("%s: %.4f (expected %.4f)%n", CardSet.toString(sampler.combos[i]), frequency, expected[i]);
+            if (Math.abs(frequency - expected[i]) > 0.005) {
+                throw new AssertionError("Combo " + i + " drawn with frequency " + frequency + ", expected " + expected[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testRangeSimulation() {
+        System.out.println("=== Range Simulation Test ===");
+
+        PLOSimulationEngine engine = new PLOSimulationEngine();
+        String heroHand = "KsKh8d7c";
+
+        // A one-hand range is that hand: compare with the exact result
+        double exact = engine.enumerateExact(heroHand, Arrays.asList("AsAc5d5c")).winRate();
+        HandRange aces = HandRange.of(Arrays.asList("AsAc5d5c"));
+        PLOSimulationEngine.SimulationResult result = engine.simulateAdaptive(heroHand, new ArrayList<>(),
+                Arrays.asList(aces), null, null);
+        System.out.printf("KK vs {AA}: %.4f%% (SD: %.4f%%), exact %.4f%%%n",
+                result.winRate * 100, result.standardDeviation * 100, exact * 100);
+        if (Math.abs(result.winRate - exact) > 4 * result.standardDeviation) {
+            throw new AssertionError("Single-hand range gave " + result.winRate + ", exact is " + exact);
+        }
+
+        // Combos blocked by the hero's cards are never dealt
+        HandRange blockedAces = HandRange.of(Arrays.asList("AsAc5d5c", "KsKc5s5h", "QhJhTd9d"));
+        double versusQueens = engine.enumerateExact(heroHand, Arrays.asList("QhJhTd9d"), null, "As").winRate();
+        result = engine.simulateAdaptive(heroHand, new ArrayList<>(), Arrays.asList(blockedAces), null, "As");
+        System.out.printf("KK vs {AA, KK, QJT9} with As dead: %.4f%%, exact vs QJT9 %.4f%%%n",
+                result.winRate * 100, versusQueens * 100);
+        if (Math.abs(result.winRate - versusQueens) > 4 * result.standardDeviation) {
+            throw new AssertionError("Blocked combos leaked into the draw: " + result.winRate);
+        }
+
+        // Two ranges sharing a hand are dealt jointly, next to a known villain and a random one
+        HandRange first = HandRange.of(Arrays.asList("AdAh2c2d", "Tc9c8h7h"));
+        HandRange second = HandRange.of(Arrays.asList("AdAh2c2d", "6s6c4d3d"));
+        PLOSimulationEngine.EquityResult equity = engine.simulateEquity(heroHand, Arrays.asList("QsJsTs9s"),
+                Arrays.asList(first, second), 1, "Kd5h2s", null, SimulationOptions.DEFAULT);
+        System.out.println("Equity by seat: " + Arrays.toString(equity.equity));
+        double total = 0;
+        for (double seatEquity : equity.equity) {
+            total += seatEquity;
+        }
+        if (equity.equity.length != 5 || Math.abs(total - 1) > 1e-9) {
+            throw new AssertionError("Expected 5 seats with equities summing to 1, got " + Arrays.toString(equity.equity));
+        }
+
+        // Ranges that can never be dealt together, or are fully blocked, are rejected
+        HandRange onlyAces = HandRange.of(Arrays.asList("AdAh2c2d"));
+        List<List<HandRange>> invalid = Arrays.asList(Arrays.asList(onlyAces, onlyAces),
+                Arrays.asList(HandRange.of(Arrays.asList("KsAdAh2c"))));
+        for (List<HandRange> ranges : invalid) {
+            try {
+                engine.simulateAdaptive(heroHand, new ArrayList<>(), ranges, null, null);
+                throw new AssertionError("Ranges should be rejected");
+            } catch (IllegalArgumentException e) {
+                System.out.println("Rejected: " + e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidRanges() {
+        Map<String, Double> negative = new LinkedHashMap<>();
+        negative.put("AsAdKsKd", -1.0);
+        Runnable[] cases = {
+            () -> HandRange.of(new ArrayList<>()),
+            () -> HandRange.of(Arrays.asList("AsAdKs")),
+            () -> HandRange.of(Arrays.asList("AsAsKsKd")),
+            () -> HandRange.weighted(negative)
+        };
+        for (Runnable invalid : cases) {
+            try {
+                invalid.run();
+                throw new AssertionError("Invalid range should be rejected");
+            } catch (IllegalArgumentException e) {
+                System.out.println("Rejected: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.plo.simulator;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+public class OmahaEvaluatorTest {
+
+    private static final PokerHandCache cache = new PokerHandCache();
+    private static final OmahaEvaluator evaluator = new OmahaEvaluator(cache);
+
+    // Reference implementation: all 60 two-from-hole, three-from-board lookups
+    private int bruteForce(int[] hole, int[] board) {
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            for (int j = i + 1; j < 4; j++) {
+                for (int k = 0; k < 3; k++) {
+                    for (int l = k + 1; l < 4; l++) {
+                        for (int m = l + 1; m < 5; m++) {
+                            best = Math.min(best, cache.getHandRank(hole[i], hole[j], board[k], board[l], board[m]));
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    @Test
+    public void testKnownHands() {
+        System.out.println("=== Testing Omaha evaluation ===");
+        // Each entry: hole, board, expected best 5-card hand
+        String[][] testData = {
+            {"AsKs2c3d", "QsJsTs9h8h", "AsKsQsJsTs"}, // Royal flush with both suited hole cards
+            {"AsKh2c3d", "QsJsTs9s8h", "AsKhQsJsTs"}, // Only one spade in hand: no flush, broadway
+            {"AsAhAdKc", "KsKhQd7c2s", "KcKsKhAhQd"}, // Exactly two hole cards play: trips, no full house
+            {"2c3c4d5d", "AhAsAdAcKh", "AhAsAd5d4d"}  // Four aces on board do not play
+        };
+        for (String[] test : testData) {
+            int actual = evaluator.evaluate(Card.parseCards(test[0]), Card.parseCards(test[1]));
+            int expected = cache.getHandRank(test[2]);
+            System.out.println(test[0] + " on " + test[1] + " -> " + actual);
+            if (actual != expected) {
+                throw new AssertionError(test[0] + " on " + test[1] + " expected rank " + expected + " but was " + actual);
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(42);
+        int[] deck = new int[Card.NUM_CARDS];
+        for (int i = 0; i < deck.length; i++) {
+            deck[i] = i;
+        }
+        int deals = 200000;
+        OmahaEvaluator.Board preparedBoard = new OmahaEvaluator.Board();
+        for (int d = 0; d < deals; d++) {
+            for (int i = 0; i < 9; i++) {
+                int j = i + random.nextInt(deck.length - i);
+                int card = deck[i];
+                deck[i] = deck[j];
+                deck[j] = card;
+            }
+            int[] hole = {deck[0], deck[1], deck[2], deck[3]};
+            int[] board = {deck[4], deck[5], deck[6], deck[7], deck[8]};
+            int expected = bruteForce(hole, board);
+            if (evaluator.evaluate(hole, board) != expected
+                    || evaluator.evaluate(hole, preparedBoard.set(board)) != expected
+                    || evaluator.evaluate(CardSet.of(hole), CardSet.of(board)) != expected) {
+                throw new AssertionError("Mismatch for " + Card.toString(hole) + " on " + Card.toString(board));
+            }
+        }
+        System.out.println("Omaha evaluator matched brute force on " + deals + " random deals");
+    }
+}
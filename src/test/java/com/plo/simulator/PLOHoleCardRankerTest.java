@@ -0,0 +1,185 @@
+package com.plo.simulator;
+
+import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PLOHoleCardRankerTest {
+
+    @Test
+    public void testResumeFromCheckpoint() throws Exception {
+        System.out.println("=== Ranking Checkpoint Test ===");
+
+        // Loose targets keep each hand to a few thousand runouts
+        PLOSimulationEngine engine = new PLOSimulationEngine(new PokerHandCache(),
+                new SimulationOptions(0.02, 0.04, Integer.MAX_VALUE, SimulationOptions.NO_TIME_BUDGET));
+        PLOHoleCardRanker ranker = new PLOHoleCardRanker(engine);
+        List<String> simulated = new ArrayList<>();
+        ranker.setProgressListener((handIndex, totalHands, normalizedHand, result, elapsedMillis) -> simulated.add(normalizedHand));
+
+        List<String> hands = Arrays.asList("AsKsQsJs", "AsAhKsKh", "KsKhQsQh", "7s6h5d2c", "8s7s6h5h");
+        Path dir = Files.createTempDirectory("ranking");
+        Path csv = dir.resolve("rankings.csv");
+        Path checkpoint = dir.resolve("rankings.csv.checkpoint");
+        try {
+            // Two hands finished before the "crash", which cut a third line short
+            Files.writeString(checkpoint, "normalized_hand,win_rate,standard_deviation,confidence_interval,simulations\n"
+                    + "AsAhKsKh,0.65,0.004,0.008,14000\n"
+                    + "7s6h5d2c,0.42,0.004,0.008,15000\n"
+                    + "KsKhQs");
+
+            if (!ranker.rankHands(hands, csv.toString(), checkpoint)) {
+                throw new AssertionError("Ranking run failed");
+            }
+            System.out.println("Simulated after resume: " + simulated);
+            if (simulated.size() != 3 || simulated.contains("AsAhKsKh") || simulated.contains("7s6h5d2c")) {
+                throw new AssertionError("Expected only the 3 unfinished hands to be simulated, got " + simulated);
+            }
+
+            List<String> lines = Files.readAllLines(csv);
+            lines.forEach(System.out::println);
+            if (lines.size() != hands.size() + 1
+                    || !lines.get(0).equals("rank,normalized_hand,win_rate,standard_deviation,confidence_interval,simulations")) {
+                throw new AssertionError("Rankings should have a header and " + hands.size() + " hands");
+            }
+            double previous = 1;
+            for (String line : lines.subList(1, lines.size())) {
+                double winRate = Double.parseDouble(line.split(",")[2]);
+                if (winRate > previous) {
+                    throw new AssertionError("Rankings not sorted by win rate at " + line);
+                }
+                previous = winRate;
+            }
+            if (lines.stream().noneMatch(line -> line.endsWith(",AsAhKsKh,0.650000,0.004000,0.008000,14000"))) {
+                throw new AssertionError("Checkpointed result was not carried into the rankings");
+            }
+            if (Files.exists(checkpoint)) {
+                throw new AssertionError("Checkpoint should be deleted after a complete run");
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(checkpoint);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void testAdaptiveRanking() {
+        System.out.println("=== Adaptive Ranking Test ===");
+
+        double z = PLOHoleCardRanker.normalQuantile(0.975);
+        if (Math.abs(z - 1.96) > 0.001) {
+            throw new AssertionError("95% two-sided quantile should be 1.96, got " + z);
+        }
+
+        // Two hands of one suit-isomorphism class cannot be told apart; the rundown trails them
+        // by about 0.25 and leads the rainbow hand by about 0.13, so both of those pairs settle
+        PLOHoleCardRanker ranker = new PLOHoleCardRanker(new PLOSimulationEngine());
+        List<String> hands = Arrays.asList("AsAhKsKh", "AdAcKdKc", "8s7s6h5h", "8c5d3h2s");
+        Map<String, PLOHoleCardRanker.HandResult> results = ranker.raceHands(hands, 0.95, 0.001, 50_000);
+        for (String hand : hands) {
+            PLOHoleCardRanker.HandResult result = results.get(hand);
+            System.out.printf("%s %.4f +/- %.4f (%d simulations)%n", hand, result.winRate, result.confidenceInterval,
+                    result.simulations);
+        }
+
+        List<String> ranked = new ArrayList<>(hands);
+        ranked.sort((a, b) -> Double.compare(results.get(b).winRate, results.get(a).winRate));
+        if (!ranked.subList(2, 4).equals(Arrays.asList("8s7s6h5h", "8c5d3h2s"))) {
+            throw new AssertionError("Expected the twins, then 8s7s6h5h, then 8c5d3h2s, got " + ranked);
+        }
+        // The separated pairs stop as soon as their intervals part; the twins run to the cap
+        double pairZ = PLOHoleCardRanker.normalQuantile(1 - 0.05 / (2 * 3));
+        for (int k = 1; k < 3; k++) {
+            PLOHoleCardRanker.HandResult higher = results.get(ranked.get(k));
+            PLOHoleCardRanker.HandResult lower = results.get(ranked.get(k + 1));
+            if (higher.winRate - pairZ * higher.standardDeviation <= lower.winRate + pairZ * lower.standardDeviation) {
+                throw new AssertionError(ranked.get(k) + " and " + ranked.get(k + 1) + " were left unsettled");
+            }
+        }
+        for (String hand : Arrays.asList("AsAhKsKh", "AdAcKdKc")) {
+            if (results.get(hand).simulations != 50_000 || results.get("8c5d3h2s").simulations >= 50_000) {
+                throw new AssertionError("Only the twins should need the full 50000 simulations");
+            }
+        }
+    }
+
+    @Test
+    public void testAdaptiveRankingBudget() {
+        System.out.println("=== Adaptive Ranking Budget Test ===");
+
+        // Rundowns a percent or two apart, as neighbours in the full ranking are
+        PLOHoleCardRanker ranker = new PLOHoleCardRanker(new PLOSimulationEngine());
+        List<String> hands = Arrays.asList("JsTs9h8h", "Ts9s8h7h", "9s8s7h6h", "8s7s6h5h", "7s6s5h4h",
+                "Ts9h8s7h", "9s8h7s6h", "QsJsTh9h");
+        Map<String, PLOHoleCardRanker.HandResult> fixed = ranker.refineHands(hands, new HashMap<>(),
+                SimulationOptions.DEFAULT_STOPPING_SD, SimulationOptions.DEFAULT_STOPPING_CI);
+        Map<String, PLOHoleCardRanker.HandResult> adaptive = ranker.raceHands(hands, 0.95,
+                SimulationOptions.DEFAULT_STOPPING_CI, 10_000);
+
+        long fixedTotal = 0;
+        long adaptiveTotal = 0;
+        for (String hand : hands) {
+            fixedTotal += fixed.get(hand).simulations;
+            adaptiveTotal += adaptive.get(hand).simulations;
+            System.out.printf("%s fixed %.4f (%d), adaptive %.4f (%d)%n", hand, fixed.get(hand).winRate,
+                    fixed.get(hand).simulations, adaptive.get(hand).winRate, adaptive.get(hand).simulations);
+        }
+        System.out.println("Total simulations: fixed " + fixedTotal + ", adaptive " + adaptiveTotal);
+        if (adaptiveTotal > fixedTotal) {
+            throw new AssertionError("Adaptive ranking spent " + adaptiveTotal + " simulations, more than the "
+                    + fixedTotal + " of a fixed-precision run");
+        }
+    }
+
+    @Test
+    public void testRefineRankings() throws Exception {
+        System.out.println("=== Ranking Refinement Test ===");
+
+        String aces = HandNormalizer.handClassRepresentative(HandNormalizer.handClass("AsAhKsKh"));
+        String rainbow = HandNormalizer.handClassRepresentative(HandNormalizer.handClass("8c5d3h2s"));
+        String rundown = HandNormalizer.handClassRepresentative(HandNormalizer.handClass("8s7s6h5h"));
+        Path existing = Files.createTempFile("rankings", ".csv");
+        try {
+            // Rows written under another suit labelling still seed their class; the rundown is missing
+            Files.writeString(existing, "rank,normalized_hand,win_rate,standard_deviation,confidence_interval,simulations\n"
+                    + "1,AhAsKhKs,0.710000,0.014349,0.028124,1000\n"
+                    + "2,8d5c3s2h,0.320000,0.006597,0.012930,5000\n");
+            Map<String, PLOHoleCardRanker.HandResult> seeds = PLOHoleCardRanker.loadRankings(existing);
+            if (seeds.size() != 2 || seeds.get(aces).simulations != 1000 || seeds.get(rainbow).winRate != 0.32) {
+                throw new AssertionError("Rankings rows were not keyed by hand class: " + seeds.keySet());
+            }
+
+            PLOHoleCardRanker ranker = new PLOHoleCardRanker(new PLOSimulationEngine());
+            Map<String, PLOHoleCardRanker.HandResult> refined = ranker.refineHands(Arrays.asList(aces, rainbow, rundown), seeds, 0.01, 0.02);
+            for (PLOHoleCardRanker.HandResult result : refined.values()) {
+                System.out.printf("%s %.4f sd %.4f (%d simulations)%n", result.normalizedHand, result.winRate,
+                        result.standardDeviation, result.simulations);
+                if (result.standardDeviation > 0.01 || result.confidenceInterval > 0.02) {
+                    throw new AssertionError(result.normalizedHand + " misses the refined targets");
+                }
+            }
+
+            // The aces keep their 710 seeded wins and only add runouts
+            PLOHoleCardRanker.HandResult refinedAces = refined.get(aces);
+            long acesWins = Math.round(refinedAces.winRate * refinedAces.simulations);
+            if (refinedAces.simulations <= 1000 || refinedAces.simulations > 2500 || acesWins < 710
+                    || acesWins - 710 > refinedAces.simulations - 1000) {
+                throw new AssertionError("Aces were not refined from their seed");
+            }
+            if (refined.get(rainbow) != seeds.get(rainbow)) {
+                throw new AssertionError("A hand already meeting the targets should not be simulated");
+            }
+            if (refined.get(rundown).simulations < 2000) {
+                throw new AssertionError("Missing hand should be simulated from scratch");
+            }
+        } finally {
+            Files.deleteIfExists(existing);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.plo.simulator;
+
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+
+public class PLORangeTest {
+
+    @Test
+    public void testComboIndex() {
+        // Lexicographic over a deck of ranks ascending, suits s, h, d, c within a rank
+        int[] deck = new int[Card.NUM_CARDS];
+        int position = 0;
+        for (int rank = 0; rank < Card.NUM_RANKS; rank++) {
+            for (int suit = Card.NUM_SUITS - 1; suit >= 0; suit--) {
+                deck[position++] = Card.of(rank, suit);
+            }
+        }
+        int index = 0;
+        for (int a = 0; a < 52; a++) {
+            for (int b = a + 1; b < 52; b++) {
+                for (int c = b + 1; c < 52; c++) {
+                    for (int d = c + 1; d < 52; d++) {
+                        long combo = CardSet.of(new int[] {deck[a], deck[b], deck[c], deck[d]});
+                        if (ComboIndex.combo(index) != combo || ComboIndex.indexOf(combo) != index) {
+                            throw new AssertionError("Combo index mismatch at " + index);
+                        }
+                        index++;
+                    }
+                }
+            }
+        }
+        if (index != ComboIndex.NUM_COMBOS) {
+            throw new AssertionError("Expected " + ComboIndex.NUM_COMBOS + " combos, enumerated " + index);
+        }
+    }
+
+    @Test
+    public void testPatterns() {
+        System.out.println("=== Range Pattern Test ===");
+
+        // Expected sizes counted by hand
+        Object[][] cases = {
+            {"AA**", 6 * 1128 + 4 * 48 + 1},
+            {"AA", 6 * 1128 + 4 * 48 + 1},
+            {"AAKK", 36},
+            {"AAKKds", 6},
+            {"AsAh**", 1128 + 2 * 48 + 1},
+            {"AxKxQyJy", 12},
+            {"AxAx", 0},
+            {"[T-A][T-A][T-A][T-A]", 4845},
+            {"[AKQJT][TJQKA][AKQJT][AKQJT]", 4845},
+            {"ds", 6 * 78 * 78},
+            {"ss", 4 * 78 * 3 * 169},
+            {"r", 13 * 13 * 13 * 13},
+            {"****", ComboIndex.NUM_COMBOS},
+            {"AA**,KK**", 2 * (6 * 1128 + 4 * 48 + 1) - 36},
+            {"AA**!AAA*", 6 * 1128},
+            {"AA**:KK**", 36},
+            {"(AA**,KK**):ds", 2 * 6 * 144 - 6},
+            {"AA**ds!AAKK", 6 * 144 - 6},
+            {" AA ** , KK ** ", 2 * (6 * 1128 + 4 * 48 + 1) - 36}
+        };
+        for (Object[] testCase : cases) {
+            long start = System.nanoTime();
+            PLORange range = PLORange.parse((String) testCase[0]);
+            System.out.printf("%-30s %s (%.1f ms)%n", testCase[0], range, (System.nanoTime() - start) / 1e6);
+            if (range.size() != (int) testCase[1]) {
+                throw new AssertionError(testCase[0] + " should have " + testCase[1] + " hands, got " + range.size());
+            }
+        }
+
+        PLORange aces = PLORange.parse("AA**");
+        PLORange kings = PLORange.parse("KK**");
+        if (!aces.union(kings).equals(PLORange.parse("AA**,KK**"))
+                || !aces.intersect(kings).equals(PLORange.parse("AAKK"))
+                || !aces.minus(kings).complement().equals(PLORange.parse("****!AA**,AAKK"))) {
+            throw new AssertionError("Bitset operations disagree with the parsed expressions");
+        }
+        if (!aces.contains("AsKdAc2h") || aces.contains("AsKdQc2h")) {
+            throw new AssertionError("Membership test is wrong");
+        }
+        // Blockers: the ace of spades leaves three aces
+        PLORange blocked = aces.withoutCards("As");
+        if (blocked.size() != 3 * 1128 + 48 || !blocked.contains("AhAd2c3c") || blocked.contains("AsAd2c3c")) {
+            throw new AssertionError("Blocked range has " + blocked.size() + " hands");
+        }
+        HandRange handRange = PLORange.parse("AAKKds").toHandRange();
+        if (handRange.size() != 6 || handRange.weight("AsKsAhKh") != 1) {
+            throw new AssertionError("Hand range conversion lost hands");
+        }
+
+        String[] invalid = {"", "AA**q", "AAAAA", "(AA", "AA,", "120%", "20%-10%", "[AK", "[]", "A,B"};
+        for (String expression : invalid) {
+            try {
+                PLORange.parse(expression);
+                throw new AssertionError("'" + expression + "' should be rejected");
+            } catch (IllegalArgumentException e) {
+                System.out.println("Rejected: " + e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        System.out.println("=== Range Percentile Test ===");
+
+        long start = System.nanoTime();
+        PLORange top10 = PLORange.parse("10%");
+        System.out.printf("10%%: %s (%.1f ms including rankings load)%n", top10, (System.nanoTime() - start) / 1e6);
+        start = System.nanoTime();
+        PLORange band = PLORange.parse("10%-20%");
+        PLORange top20 = PLORange.parse("20%");
+        System.out.printf("10%%-20%%: %s, 20%%: %s (%.1f ms)%n", band, top20, (System.nanoTime() - start) / 1e6);
+
+        // Whole classes only, so never more than asked for, and never far off
+        if (top10.percentOfHands() > 10 || top10.percentOfHands() < 9.9) {
+            throw new AssertionError("Top 10% covers " + top10.percentOfHands() + "%");
+        }
+        if (!top10.intersect(band).isEmpty() || !top10.union(band).minus(top20).isEmpty()) {
+            throw new AssertionError("Percentile bands overlap or escape the top 20%");
+        }
+        for (String hand : Arrays.asList("AsAhKsKh", "AdAcKdKc", "AsAhJsTh")) {
+            if (!top10.contains(hand)) {
+                throw new AssertionError(hand + " should be in the top 10%");
+            }
+        }
+        if (top10.contains("7c2d3h8s") || !PLORange.parse("100%").equals(PLORange.ALL)) {
+            throw new AssertionError("Percentiles misclassify hands");
+        }
+    }
+}
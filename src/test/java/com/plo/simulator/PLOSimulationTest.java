@@ -1,9 +1,15 @@
 package com.plo.simulator;
 
 import org.junit.jupiter.api.Test;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 
 public class PLOSimulationTest {
     
@@ -105,4 +111,548 @@ public class PLOSimulationTest {
                          result.winRate * 100, result.standardDeviation * 100, 
                          result.confidenceInterval * 100, result.iterations);
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testBitmaskBackend() {
+        System.out.println("=== Bitmask Backend Test ===");
+        
+        PLOSimulationEngine engine = new PLOSimulationEngine(new BitmaskHandEvaluator());
+        PLOSimulationEngine.SimulationResult result = engine.simulateAdaptive("KsKh8d7c", Arrays.asList("AsAc5d5c"));
+        
+        System.out.printf("KK vs AA win rate: %.4f%% (SD: %.4f%%, Simulations: %d)%n", 
+                         result.winRate * 100, result.standardDeviation * 100, result.iterations);
+        if (result.winRate < 0.2 || result.winRate > 0.4) {
+            throw new AssertionError("Unexpected KK vs AA win rate " + result.winRate);
+        }
+    }
+
+    @Test
+    public void testDealingLoopDoesNotAllocate() {
+        System.out.println("=== Dealing Loop Allocation Test ===");
+        
+        PLOSimulationEngine engine = new PLOSimulationEngine();
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int iterations = 200000;
+        
+        for (List<String> villainHands : Arrays.asList(new ArrayList<String>(), Arrays.asList("AsAc5d5c", "Qh9h8s2d"))) {
+            engine.simulateIterations("KsKh8d7c", villainHands, iterations); // Warm up
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            engine.simulateIterations("KsKh8d7c", villainHands, iterations);
+            long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+            
+            System.out.printf("%d villains: %d bytes allocated for %d iterations%n", villainHands.size(), allocated, iterations);
+            // Only the per-call setup may allocate; anything per iteration would be megabytes
+            if (allocated > 16 * 1024) {
+                throw new AssertionError("Dealing loop allocated " + allocated + " bytes for " + iterations + " iterations");
+            }
+        }
+    }
+
+    @Test
+    public void testExactEnumeration() {
+        System.out.println("=== Exact Enumeration Test ===");
+        
+        PokerHandCache cache = new PokerHandCache();
+        PLOSimulationEngine engine = new PLOSimulationEngine(cache);
+        OmahaEvaluator evaluator = new OmahaEvaluator(cache);
+        
+        // Eleven players leave 8 live cards, so the 56 boards can be checked one by one
+        String heroHand = "7sKh8d4h";
+        List<String> villainHands = Arrays.asList("AsAc5d5c", "Qh9h8s2d", "JcJdTs9s", "6h6s4c3d",
+                "AhKdQcJh", "Td9d8c7h", "2c2h3s4s", "5h5sKc7d", "QsQd6c6d", "9cTcJs3h");
+        int[] hero = Card.parseCards(heroHand);
+        long usedCards = CardSet.of(hero);
+        List<int[]> villains = new ArrayList<>();
+        for (String hand : villainHands) {
+            villains.add(Card.parseCards(hand));
+            usedCards |= CardSet.of(villains.get(villains.size() - 1));
+        }
+        int[] deck = CardSet.toArray(CardSet.FULL_DECK & ~usedCards);
+        
+        long[] expected = new long[3];
+        for (int a = 0; a < deck.length; a++) {
+            for (int b = a + 1; b < deck.length; b++) {
+                for (int c = b + 1; c < deck.length; c++) {
+                    for (int d = c + 1; d < deck.length; d++) {
+                        for (int e = d + 1; e < deck.length; e++) {
+                            int[] board = {deck[a], deck[b], deck[c], deck[d], deck[e]};
+                            int heroRank = evaluator.evaluate(hero, board);
+                            int bestVillain = Integer.MAX_VALUE;
+                            for (int[] villain : villains) {
+                                bestVillain = Math.min(bestVillain, evaluator.evaluate(villain, board));
+                            }
+                            expected[heroRank < bestVillain ? 0 : heroRank == bestVillain ? 1 : 2]++;
+                        }
+                    }
+                }
+            }
+        }
+        
+        PLOSimulationEngine.ExactResult exact = engine.enumerateExact(heroHand, villainHands);
+        System.out.printf("Wins: %d, Ties: %d, Losses: %d, Boards: %d%n", exact.wins, exact.ties, exact.losses, exact.boards);
+        if (exact.wins != expected[0] || exact.ties != expected[1] || exact.losses != expected[2]) {
+            throw new AssertionError("Expected " + Arrays.toString(expected) + " but enumerated "
+                    + exact.wins + "/" + exact.ties + "/" + exact.losses);
+        }
+        
+        // So few boards are cheaper to enumerate than to sample, so simulateAdaptive is exact too
+        PLOSimulationEngine.SimulationResult result = engine.simulateAdaptive(heroHand, villainHands);
+        if (result.iterations != exact.boards || result.winRate != exact.winRate() || result.standardDeviation != 0) {
+            throw new AssertionError("simulateAdaptive did not use exact enumeration: " + result.iterations + " iterations");
+        }
+        
+        // Heads-up preflop: every one of the C(44,5) boards
+        PLOSimulationEngine.ExactResult headsUp = engine.enumerateExact("KsKh8d7c", Arrays.asList("AsAc5d5c"));
+        System.out.printf("KK vs AA exact: win %.4f%%, tie %.4f%% over %d boards%n",
+                headsUp.winRate() * 100, headsUp.tieRate() * 100, headsUp.boards);
+        if (headsUp.boards != 1086008) {
+            throw new AssertionError("Expected 1086008 boards but enumerated " + headsUp.boards);
+        }
+    }
+
+    @Test
+    public void testEquityVector() {
+        System.out.println("=== Equity Vector Test ===");
+        
+        PLOSimulationEngine engine = new PLOSimulationEngine();
+        
+        // Few enough boards to enumerate: the hero's seat must agree with enumerateExact
+        String heroHand = "7sKh8d4h";
+        List<String> villainHands = Arrays.asList("AsAc5d5c", "Qh9h8s2d", "JcJdTs9s", "6h6s4c3d",
+                "AhKdQcJh", "Td9d8c7h", "2c2h3s4s", "5h5sKc7d", "QsQd6c6d", "9cTcJs3h");
+        PLOSimulationEngine.EquityResult exact = engine.simulateEquity(heroHand, villainHands, 0);
+        PLOSimulationEngine.ExactResult heroOnly = engine.enumerateExact(heroHand, villainHands);
+        if (exact.iterations != heroOnly.boards || exact.winRate[0] != heroOnly.winRate() || exact.tieRate[0] != heroOnly.tieRate()) {
+            throw new AssertionError("Equity vector disagrees with enumerateExact for the hero");
+        }
+        checkEquitiesSumToOne(exact);
+        
+        // Four-way with two random villains, sampled
+        PLOSimulationEngine.EquityResult sampled = engine.simulateEquity("KsKh8d7c", Arrays.asList("AsAc5d5c"), 2);
+        for (int seat = 0; seat < sampled.equity.length; seat++) {
+            System.out.printf("Seat %d: equity %.4f%%, win %.4f%%, tie %.4f%% (SD: %.4f%%)%n", seat,
+                    sampled.equity[seat] * 100, sampled.winRate[seat] * 100, sampled.tieRate[seat] * 100,
+                    sampled.standardDeviation[seat] * 100);
+            if (sampled.standardDeviation[seat] > 0.005) {
+                throw new AssertionError("Seat " + seat + " stopped before reaching the SD threshold");
+            }
+        }
+        checkEquitiesSumToOne(sampled);
+        
+        // The two random villains are dealt from the same distribution
+        if (Math.abs(sampled.equity[2] - sampled.equity[3]) > 0.03) {
+            throw new AssertionError("Random villain equities differ: " + sampled.equity[2] + " vs " + sampled.equity[3]);
+        }
+    }
+    
+    @Test
+    public void testSamplingStrategies() {
+        System.out.println("=== Sampling Strategy Test ===");
+        
+        PLOSimulationEngine engine = new PLOSimulationEngine();
+        List<String> villainHands = Arrays.asList("AsAc5d5c");
+        double exact = engine.enumerateExact("KsKh8d7c", villainHands).winRate();
+        
+        for (PLOSimulationEngine.SamplingStrategy strategy : PLOSimulationEngine.SamplingStrategy.values()) {
+            PLOSimulationEngine.SimulationResult result = engine.simulateAdaptive("KsKh8d7c", villainHands, strategy);
+            System.out.printf("%s: %.4f%% (SD: %.4f%%, Simulations: %d), exact %.4f%%%n", strategy,
+                    result.winRate * 100, result.standardDeviation * 100, result.iterations, exact * 100);
+            if (result.standardDeviation > 0.005 || Math.abs(result.winRate - exact) > 4 * result.standardDeviation) {
+                throw new AssertionError(strategy + " estimate " + result.winRate + " is inconsistent with exact " + exact);
+            }
+            
+            // The reported deviation must match the spread of repeated estimates
+            int repeats = 100;
+            double sum = 0;
+            double sumOfSquares = 0;
+            double reportedVariance = 0;
+            for (int r = 0; r < repeats; r++) {
+                PLOSimulationEngine.SimulationResult run = engine.simulateIterations("KsKh8d7c", villainHands, 2048, strategy);
+                sum += run.winRate;
+                sumOfSquares += run.winRate * run.winRate;
+                reportedVariance += run.standardDeviation * run.standardDeviation / repeats;
+            }
+            double observed = Math.sqrt((sumOfSquares - sum * sum / repeats) / (repeats - 1));
+            double reported = Math.sqrt(reportedVariance);
+            System.out.printf("%s: observed SD %.4f%%, reported SD %.4f%% over %d runs%n", strategy, observed * 100, reported * 100, repeats);
+            if (observed < 0.7 * reported || observed > 1.4 * reported) {
+                throw new AssertionError(strategy + " reports SD " + reported + " but estimates spread by " + observed);
+            }
+        }
+    }
+    
+    @Test
+    public void testSimulationOptions() {
+        System.out.println("=== Simulation Options Test ===");
+        
+        PLOSimulationEngine engine = new PLOSimulationEngine();
+        List<String> villainHands = Arrays.asList("AsAc5d5c");
+        
+        // Unreachable precision: the iteration cap decides, and is never exceeded
+        SimulationOptions capped = new SimulationOptions(1e-6, 1e-6, 5000, SimulationOptions.NO_TIME_BUDGET);
+        PLOSimulationEngine.SimulationResult result = engine.simulateAdaptive("KsKh8d7c", villainHands,
+                PLOSimulationEngine.SamplingStrategy.PLAIN, capped);
+        System.out.println("Capped run: " + result.iterations + " iterations");
+        if (result.iterations != 5000) {
+            throw new AssertionError("Expected exactly 5000 iterations but ran " + result.iterations);
+        }
+        
+        // Unreachable precision and no cap: the time budget decides
+        SimulationOptions timed = new SimulationOptions(1e-6, 1e-6, Integer.MAX_VALUE, 200);
+        long start = System.currentTimeMillis();
+        result = engine.simulateAdaptive("KsKh8d7c", villainHands, PLOSimulationEngine.SamplingStrategy.PLAIN, timed);
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("Timed run: " + result.iterations + " iterations in " + elapsed + " ms");
+        if (elapsed > 2000 || result.iterations < 100) {
+            throw new AssertionError("Time budget not respected: " + elapsed + " ms, " + result.iterations + " iterations");
+        }
+        
+        // A looser target stops sooner than the default one
+        SimulationOptions loose = new SimulationOptions(0.01, 0.02, Integer.MAX_VALUE, SimulationOptions.NO_TIME_BUDGET);
+        result = engine.simulateAdaptive("KsKh8d7c", villainHands, PLOSimulationEngine.SamplingStrategy.PLAIN, loose);
+        System.out.println("Loose run: " + result.iterations + " iterations, SD " + result.standardDeviation);
+        if (result.standardDeviation > 0.01 || result.iterations > 5000) {
+            throw new AssertionError("Loose targets ran " + result.iterations + " iterations to SD " + result.standardDeviation);
+        }
+
+        // Tighter targets make enumeration worth it beyond the default 10,000 boards (8 known hands leave 15,504)
+        List<String> sevenVillains = Arrays.asList("KsKhKdKc", "QsQhQdQc", "JsJhJdJc", "TsThTdTc", "9s9h9d9c", "8s8h8d8c", "7s7h7d7c");
+        SimulationOptions tight = new SimulationOptions(0.001, 0.002, Integer.MAX_VALUE, SimulationOptions.NO_TIME_BUDGET);
+        result = engine.simulateAdaptive("AsAhAdAc", sevenVillains, PLOSimulationEngine.SamplingStrategy.PLAIN, tight);
+        System.out.println("Tight 8-way run: " + result.stopReason + " after " + result.iterations + " boards");
+        if (result.stopReason != PLOSimulationEngine.StopReason.EXACT || result.iterations != 15504
+                || result.winRate != engine.enumerateExact("AsAhAdAc", sevenVillains).winRate()) {
+            throw new AssertionError("Tight targets should enumerate all 15504 boards, got " + result.stopReason);
+        }
+        // A caller's token could cut enumeration short, so it samples instead
+        result = engine.simulateAdaptive("AsAhAdAc", sevenVillains, PLOSimulationEngine.SamplingStrategy.PLAIN, tight,
+                new CancellationToken());
+        if (result.stopReason == PLOSimulationEngine.StopReason.EXACT) {
+            throw new AssertionError("A cancellable run enumerated 15504 boards");
+        }
+
+        try {
+            new SimulationOptions(0, 0.01, 1000, SimulationOptions.NO_TIME_BUDGET);
+            throw new AssertionError("Non-positive target was accepted");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid options rejected: " + e.getMessage());
+        }
+    }
+    
+    @Test
+    public void testCancellation() throws Exception {
+        System.out.println("=== Cancellation Test ===");
+        
+        PLOSimulationEngine engine = new PLOSimulationEngine();
+        List<String> villainHands = Arrays.asList("AsAc5d5c");
+        SimulationOptions unreachable = new SimulationOptions(1e-6, 1e-6, Integer.MAX_VALUE, SimulationOptions.NO_TIME_BUDGET);
+        
+        // Deadline: returns promptly with whatever precision was reached
+        long start = System.nanoTime();
+        PLOSimulationEngine.SimulationResult result = engine.simulateAdaptive("KsKh8d7c", villainHands,
+                PLOSimulationEngine.SamplingStrategy.PLAIN, unreachable, CancellationToken.withTimeout(20));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("Deadline: %.4f%% (SD: %.4f%%, Simulations: %d) after %d ms, %s%n",
+                result.winRate * 100, result.standardDeviation * 100, result.iterations, elapsedMillis, result.stopReason);
+        if (result.stopReason != PLOSimulationEngine.StopReason.DEADLINE || result.iterations == 0 || elapsedMillis > 500) {
+            throw new AssertionError("Deadline run returned " + result.stopReason + " after " + elapsedMillis + " ms");
+        }
+        
+        // Explicit cancellation from another thread
+        CancellationToken token = new CancellationToken();
+        Thread canceller = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            token.cancel();
+        });
+        canceller.start();
+        result = engine.simulateAdaptive("KsKh8d7c", villainHands, PLOSimulationEngine.SamplingStrategy.PLAIN, unreachable, token);
+        canceller.join();
+        System.out.println("Cancelled after " + result.iterations + " iterations, SD " + result.standardDeviation);
+        if (result.stopReason != PLOSimulationEngine.StopReason.CANCELLED || result.winRate < 0.2 || result.winRate > 0.4) {
+            throw new AssertionError("Cancelled run returned " + result.stopReason + " with win rate " + result.winRate);
+        }
+        
+        // A token that never fires leaves convergence as the only exit
+        result = engine.simulateAdaptive("KsKh8d7c", villainHands, new CancellationToken());
+        if (result.stopReason != PLOSimulationEngine.StopReason.CONVERGED || result.standardDeviation > 0.005) {
+            throw new AssertionError("Uncancelled run returned " + result.stopReason);
+        }
+    }
+    
+    @Test
+    public void testStreamingProgress() throws Exception {
+        System.out.println("=== Streaming Progress Test ===");
+        
+        PLOSimulationEngine engine = new PLOSimulationEngine();
+        List<String> villainHands = Arrays.asList("AsAc5d5c");
+        
+        // Collect every snapshot until the final result arrives
+        List<PLOSimulationEngine.SimulationResult> received = new CopyOnWriteArrayList<>();
+        List<String> deliveryThreads = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        SimulationOptions tight = new SimulationOptions(0.0007, 0.0014, Integer.MAX_VALUE, SimulationOptions.NO_TIME_BUDGET);
+        engine.simulateAdaptiveStreaming("KsKh8d7c", villainHands, PLOSimulationEngine.SamplingStrategy.PLAIN, tight)
+                .subscribe(new Flow.Subscriber<PLOSimulationEngine.SimulationResult>() {
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                        subscription.request(Long.MAX_VALUE);
+                    }
+                    
+                    @Override
+                    public void onNext(PLOSimulationEngine.SimulationResult item) {
+                        received.add(item);
+                        deliveryThreads.add(Thread.currentThread().getName());
+                    }
+                    
+                    @Override
+                    public void onError(Throwable throwable) {
+                        done.completeExceptionally(throwable);
+                    }
+                    
+                    @Override
+                    public void onComplete() {
+                        done.complete(null);
+                    }
+                });
+        done.get(30, TimeUnit.SECONDS);
+        
+        PLOSimulationEngine.SimulationResult last = received.get(received.size() - 1);
+        System.out.println(received.size() + " snapshots, final: " + last.iterations + " iterations, " + last.stopReason);
+        if (last.stopReason != PLOSimulationEngine.StopReason.CONVERGED || received.size() < 2) {
+            throw new AssertionError("Expected interim snapshots then a converged result, got " + received.size() + " items");
+        }
+        for (int i = 0; i < received.size() - 1; i++) {
+            if (received.get(i).stopReason != null || received.get(i).iterations > received.get(i + 1).iterations) {
+                throw new AssertionError("Snapshot " + i + " is not an interim estimate in iteration order");
+            }
+        }
+        // Delivery has its own threads, so a slow subscriber blocks neither the workers nor the common pool
+        for (String thread : deliveryThreads) {
+            if (!thread.equals("plo-streaming")) {
+                throw new AssertionError("Result delivered on " + thread);
+            }
+        }
+        
+        // A subscriber that stops early on its own criterion cancels the run
+        CompletableFuture<Integer> stoppedAt = new CompletableFuture<>();
+        SimulationOptions unreachable = new SimulationOptions(1e-6, 1e-6, Integer.MAX_VALUE, SimulationOptions.NO_TIME_BUDGET);
+        engine.simulateAdaptiveStreaming("KsKh8d7c", villainHands, PLOSimulationEngine.SamplingStrategy.PLAIN, unreachable)
+                .subscribe(new Flow.Subscriber<PLOSimulationEngine.SimulationResult>() {
+                    private Flow.Subscription subscription;
+                    
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                        this.subscription = subscription;
+                        subscription.request(Long.MAX_VALUE);
+                    }
+                    
+                    @Override
+                    public void onNext(PLOSimulationEngine.SimulationResult item) {
+                        if (item.winRate + 3 * item.standardDeviation < 0.5) {
+                            // Clearly an underdog: good enough for this caller
+                            subscription.cancel();
+                            stoppedAt.complete(item.iterations);
+                        }
+                    }
+                    
+                    @Override
+                    public void onError(Throwable throwable) {
+                        stoppedAt.completeExceptionally(throwable);
+                    }
+                    
+                    @Override
+                    public void onComplete() {
+                        stoppedAt.completeExceptionally(new AssertionError("Run completed without being cancelled"));
+                    }
+                });
+        System.out.println("Subscriber stopped the run after " + stoppedAt.get(30, TimeUnit.SECONDS) + " iterations");
+    }
+    
+    @Test
+    public void testSimulateBatch() throws Exception {
+        System.out.println("=== Batch Simulation Test ===");
+        
+        PLOSimulationEngine engine = new PLOSimulationEngine();
+        List<String> fullTable = Arrays.asList("AsAc5d5c", "Qh9h8s2d", "JcJdTs9s", "6h6s4c3d",
+                "AhKdQcJh", "Td9d8c7h", "2c2h3s4s", "5h5sKc7d", "QsQd6c6d", "9cTcJs3h");
+        List<PLOSimulationEngine.Matchup> matchups = new ArrayList<>();
+        matchups.add(new PLOSimulationEngine.Matchup("KsKh8d7c", Arrays.asList("AsAc5d5c")));
+        matchups.add(new PLOSimulationEngine.Matchup("AsAdKsKd", new ArrayList<>()));
+        matchups.add(new PLOSimulationEngine.Matchup("AsAsKdKc", new ArrayList<>())); // Duplicate card
+        matchups.add(new PLOSimulationEngine.Matchup("7sKh8d4h", fullTable));
+        for (String hand : Arrays.asList("2s3d4c7h", "QhJhTd9d", "AhKhQcJc", "6c6d7s8s")) {
+            matchups.add(new PLOSimulationEngine.Matchup(hand, new ArrayList<>()));
+        }
+        
+        List<CompletableFuture<PLOSimulationEngine.SimulationResult>> futures = engine.simulateBatch(matchups);
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).handle((v, e) -> null).get(60, TimeUnit.SECONDS);
+        
+        for (int i = 0; i < matchups.size(); i++) {
+            PLOSimulationEngine.Matchup matchup = matchups.get(i);
+            if (i == 2) {
+                if (!futures.get(i).isCompletedExceptionally()) {
+                    throw new AssertionError("Invalid matchup " + matchup.heroHand + " should fail");
+                }
+                continue;
+            }
+            PLOSimulationEngine.SimulationResult result = futures.get(i).join();
+            System.out.printf("%s vs %s: %.4f%% (SD: %.4f%%, Simulations: %d, %s)%n", matchup.heroHand, matchup.villainHands,
+                    result.winRate * 100, result.standardDeviation * 100, result.iterations, result.stopReason);
+            if (result.standardDeviation > 0.0051) {
+                throw new AssertionError(matchup.heroHand + " did not converge: SD " + result.standardDeviation);
+            }
+        }
+        
+        // Same estimates as one-at-a-time simulation, and the small matchup is still enumerated
+        PLOSimulationEngine.SimulationResult kings = futures.get(0).join();
+        if (kings.stopReason != PLOSimulationEngine.StopReason.CONVERGED || kings.winRate < 0.2 || kings.winRate > 0.4) {
+            throw new AssertionError("KK vs AA returned " + kings.winRate + ", " + kings.stopReason);
+        }
+        PLOSimulationEngine.SimulationResult exact = futures.get(3).join();
+        if (exact.stopReason != PLOSimulationEngine.StopReason.EXACT
+                || exact.winRate != engine.enumerateExact("7sKh8d4h", fullTable).winRate()) {
+            throw new AssertionError("Full table matchup was not enumerated: " + exact.stopReason);
+        }
+        if (futures.get(1).join().winRate < futures.get(4).join().winRate) {
+            throw new AssertionError("AAKK double suited should beat 2-3-4-7 rainbow");
+        }
+        
+        if (!engine.simulateBatch(new ArrayList<>()).isEmpty()) {
+            throw new AssertionError("Empty batch should return no results");
+        }
+
+        // A scheduler with room for one simulation, taken by other work: the batch waits for it
+        // instead of failing, and then runs one matchup at a time
+        try (SimulationScheduler scheduler = new SimulationScheduler(2, 1)) {
+            PLOSimulationEngine saturated = new PLOSimulationEngine(new PokerHandCache(),
+                    new SimulationOptions(0.02, 0.04, Integer.MAX_VALUE, SimulationOptions.NO_TIME_BUDGET), scheduler);
+            CountDownLatch gate = new CountDownLatch(1);
+            CompletableFuture<String> blocker = scheduler.submit(new SimulationScheduler.Job<String>() {
+                @Override
+                public boolean runSlice(int workerIndex) {
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return false;
+                }
+
+                @Override
+                public String result() {
+                    return "blocker";
+                }
+            }, SimulationScheduler.Priority.INTERACTIVE);
+            List<PLOSimulationEngine.Matchup> queued = matchups.subList(4, matchups.size());
+            futures = saturated.simulateBatch(queued);
+            Thread.sleep(100);
+            gate.countDown();
+            blocker.get(10, TimeUnit.SECONDS);
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(60, TimeUnit.SECONDS);
+            System.out.println("Saturated scheduler: all " + futures.size() + " matchups completed");
+        }
+    }
+    
+    @Test
+    public void testPartialBoard() {
+        System.out.println("=== Partial Board Test ===");
+        
+        PokerHandCache cache = new PokerHandCache();
+        PLOSimulationEngine engine = new PLOSimulationEngine(cache);
+        OmahaEvaluator evaluator = new OmahaEvaluator(cache);
+        String heroHand = "KsKh8d7c";
+        List<String> villainHands = Arrays.asList("AsAc5d5c");
+        
+        // Flop, turn and river, with and without dead cards, against a brute-force count
+        String[][] spots = {
+            {"Kd9s2h", ""},
+            {"Kd9s2h", "Qc3d"},
+            {"Kd9s2hAd", ""},
+            {"Kd9s2hAd7h", ""}
+        };
+        for (String[] spot : spots) {
+            int[] hero = Card.parseCards(heroHand);
+            int[] villain = Card.parseCards(villainHands.get(0));
+            int[] known = Card.parseCards(spot[0]);
+            long usedCards = CardSet.of(hero) | CardSet.of(villain) | CardSet.of(known) | CardSet.of(Card.parseCards(spot[1]));
+            int[] deck = CardSet.toArray(CardSet.FULL_DECK & ~usedCards);
+            long[] expected = new long[3];
+            countRunouts(evaluator, hero, villain, Arrays.copyOf(known, 5), known.length, deck, 0, expected);
+            
+            PLOSimulationEngine.ExactResult exact = engine.enumerateExact(heroHand, villainHands, spot[0], spot[1]);
+            PLOSimulationEngine.SimulationResult result = engine.simulateAdaptive(heroHand, villainHands, spot[0], spot[1]);
+            System.out.printf("Board %s, dead %s: win %.4f%% over %d runouts (%s)%n", spot[0], spot[1].isEmpty() ? "-" : spot[1],
+                    result.winRate * 100, result.iterations, result.stopReason);
+            if (exact.wins != expected[0] || exact.ties != expected[1] || exact.losses != expected[2]) {
+                throw new AssertionError("Expected " + Arrays.toString(expected) + " but enumerated "
+                        + exact.wins + "/" + exact.ties + "/" + exact.losses);
+            }
+            if (result.stopReason != PLOSimulationEngine.StopReason.EXACT || result.winRate != exact.winRate()) {
+                throw new AssertionError("Board " + spot[0] + " should be enumerated, got " + result.stopReason);
+            }
+        }
+        if (engine.enumerateExact(heroHand, villainHands, "Kd9s2h", "").boards != 820
+                || engine.enumerateExact(heroHand, villainHands, "Kd9s2hAd", null).boards != 40) {
+            throw new AssertionError("Heads-up flop should leave C(41, 2) runouts and turn 40");
+        }
+        
+        // A random villain is still sampled, and every strategy agrees on a known flop
+        for (PLOSimulationEngine.SamplingStrategy strategy : PLOSimulationEngine.SamplingStrategy.values()) {
+            PLOSimulationEngine.SimulationResult result = engine.simulateAdaptive(heroHand, new ArrayList<>(), "Kd9s2h", null,
+                    strategy, SimulationOptions.DEFAULT, new CancellationToken());
+            System.out.printf("Top set vs random hand, %s: %.4f%% (SD: %.4f%%, Simulations: %d)%n", strategy,
+                    result.winRate * 100, result.standardDeviation * 100, result.iterations);
+            if (result.stopReason != PLOSimulationEngine.StopReason.CONVERGED || result.winRate < 0.75) {
+                throw new AssertionError("Top set on a dry flop won only " + result.winRate + " with " + strategy);
+            }
+        }
+        PLOSimulationEngine.EquityResult equity = engine.simulateEquity(heroHand, villainHands, 1, "Kd9s2hAd", "Qc");
+        checkEquitiesSumToOne(equity);
+        
+        String[][] invalid = {
+            {"Kd9s", ""},           // Too few board cards
+            {"Kd9s2hAd7h3c", ""},   // Too many board cards
+            {"Ks9s2h", ""},         // Board card in the hero's hand
+            {"Kd9s2h", "9s"},       // Dead card on the board
+            {"Kd9s2h", "Qc3"}       // Malformed dead cards
+        };
+        for (String[] spot : invalid) {
+            try {
+                engine.simulateAdaptive(heroHand, villainHands, spot[0], spot[1]);
+                throw new AssertionError("Board " + spot[0] + " with dead " + spot[1] + " should be rejected");
+            } catch (IllegalArgumentException e) {
+                System.out.println("Rejected: " + e.getMessage());
+            }
+        }
+    }
+    
+    // Brute force: every ascending completion of the board from the live deck
+    private void countRunouts(OmahaEvaluator evaluator, int[] hero, int[] villain, int[] board, int position, int[] deck,
+                              int start, long[] counts) {
+        if (position == board.length) {
+            int heroRank = evaluator.evaluate(hero, board);
+            int villainRank = evaluator.evaluate(villain, board);
+            counts[heroRank < villainRank ? 0 : heroRank == villainRank ? 1 : 2]++;
+            return;
+        }
+        for (int i = start; i < deck.length; i++) {
+            board[position] = deck[i];
+            countRunouts(evaluator, hero, villain, board, position + 1, deck, i + 1, counts);
+        }
+    }
+    
+    private void checkEquitiesSumToOne(PLOSimulationEngine.EquityResult result) {
+        double total = 0;
+        for (double equity : result.equity) {
+            total += equity;
+        }
+        if (Math.abs(total - 1) > 1e-9) {
+            throw new AssertionError("Equities sum to " + total);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.plo.simulator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+public class PokerHandCacheTest {
+
+    private static final PokerHandCache cache = new PokerHandCache();
+
+    @Test
+    public void testKnownHandRanks() {
+        System.out.println("=== Testing known hand ranks ===");
+        // Each entry: hand, expected rank from non_normalized_ranked_poker_hands.txt
+        String[][] testData = {
+            {"AsKsQsJsTs", "1"},    // Royal Flush
+            {"As5s4s3s2s", "2"},    // Wheel straight flush sorts right below the royal
+            {"KhQhJhTh9h", "3"},
+            {"AsAhAdAcKs", "11"},   // Best four of a kind
+            {"7h5c4c3c2c", "7462"}, // Worst high card
+            {"2c3d4h5sAs", "1601"}, // Wheel straight sorts right below broadway
+            {"KdKcTh7s2s", "4304"}  // One pair
+        };
+        for (String[] test : testData) {
+            int actual = cache.getHandRank(test[0]);
+            System.out.println(test[0] + " -> " + actual);
+            if (actual != Integer.parseInt(test[1])) {
+                throw new AssertionError("Rank of " + test[0] + " expected " + test[1] + " but was " + actual);
+            }
+        }
+    }
+
+    @Test
+    public void testLookupFormsAgree() {
+        String[] cards = {"Qd", "Qs", "9c", "9h", "2d"};
+        int[] ints = Card.parseCards(cards);
+        int fromStrings = cache.getHandRank(cards);
+        int fromInts = cache.getHandRank(ints[4], ints[2], ints[0], ints[3], ints[1]);
+        int fromMask = cache.getHandRank(CardSet.of(ints));
+        if (fromStrings != fromInts || fromInts != fromMask) {
+            throw new AssertionError("Lookups disagree: " + fromStrings + ", " + fromInts + ", " + fromMask);
+        }
+    }
+
+    @Test
+    public void testBitmaskEvaluatorMatchesTable() {
+        BitmaskHandEvaluator bitmaskEvaluator = new BitmaskHandEvaluator();
+        int count = 0;
+        for (int a = 0; a < 52; a++) {
+            for (int b = a + 1; b < 52; b++) {
+                for (int c = b + 1; c < 52; c++) {
+                    for (int d = c + 1; d < 52; d++) {
+                        for (int e = d + 1; e < 52; e++) {
+                            long hand = (1L << a) | (1L << b) | (1L << c) | (1L << d) | (1L << e);
+                            if (bitmaskEvaluator.getHandRank(hand) != cache.getHandRank(hand)) {
+                                throw new AssertionError("Backends disagree on " + CardSet.toString(hand));
+                            }
+                            count++;
+                        }
+                    }
+                }
+            }
+        }
+        System.out.println("Bitmask evaluator matched the rank table on " + count + " hands");
+    }
+
+    @Test
+    public void testHandIndexIsPerfectHash() {
+        boolean[] seen = new boolean[PokerHandCache.NUM_HANDS];
+        int count = 0;
+        for (int a = 0; a < 52; a++) {
+            for (int b = a + 1; b < 52; b++) {
+                for (int c = b + 1; c < 52; c++) {
+                    for (int d = c + 1; d < 52; d++) {
+                        for (int e = d + 1; e < 52; e++) {
+                            int index = PokerHandCache.handIndex((1L << a) | (1L << b) | (1L << c) | (1L << d) | (1L << e));
+                            if (seen[index]) {
+                                throw new AssertionError("Index collision at " + index);
+                            }
+                            seen[index] = true;
+                            count++;
+                        }
+                    }
+                }
+            }
+        }
+        System.out.println("handIndex mapped " + count + " hands without collisions");
+    }
+
+    @Test
+    public void testBinaryTableRoundTrip(@TempDir Path tempDir) throws Exception {
+        String tableFile = tempDir.resolve("ranks.bin").toString();
+        new PokerHandGenerator().generateBinaryTable(tableFile);
+
+        PokerHandCache mapped = new PokerHandCache(tableFile);
+        for (String hand : new String[] {"AsKsQsJsTs", "As5s4s3s2s", "KdKcTh7s2s", "7h5c4c3c2c"}) {
+            if (mapped.getHandRank(hand) != cache.getHandRank(hand)) {
+                throw new AssertionError("Binary table disagrees on " + hand);
+            }
+        }
+
+        // Flip one payload byte: the checksum must reject the table
+        try (RandomAccessFile file = new RandomAccessFile(tableFile, "rw")) {
+            file.seek(1000);
+            int b = file.read();
+            file.seek(1000);
+            file.write(b ^ 1);
+        }
+        PokerHandCache corrupted = new PokerHandCache(tableFile);
+        try {
+            corrupted.getHandRank("AsKsQsJsTs");
+            throw new AssertionError("Corrupted binary table was accepted");
+        } catch (RuntimeException e) {
+            System.out.println("Corrupted table rejected: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.plo.simulator;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SimulationSchedulerTest {
+
+    // Needs a fixed number of turns; the gate, if any, holds every turn until it opens
+    private static class CountingJob implements SimulationScheduler.Job<String> {
+        final String name;
+        final int slices;
+        final CountDownLatch gate;
+        final AtomicInteger done = new AtomicInteger();
+
+        CountingJob(String name, int slices, CountDownLatch gate) {
+            this.name = name;
+            this.slices = slices;
+            this.gate = gate;
+        }
+
+        @Override
+        public boolean runSlice(int workerIndex) {
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return done.incrementAndGet() < slices;
+        }
+
+        @Override
+        public String result() {
+            return name;
+        }
+    }
+
+    @Test
+    public void testAdmissionControl() throws Exception {
+        System.out.println("=== Scheduler Admission Test ===");
+
+        try (SimulationScheduler scheduler = new SimulationScheduler(2, 3)) {
+            CountDownLatch gate = new CountDownLatch(1);
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(scheduler.submit(new CountingJob("job" + i, 10, gate), SimulationScheduler.Priority.BATCH));
+            }
+            try {
+                scheduler.submit(new CountingJob("overflow", 1, null), SimulationScheduler.Priority.INTERACTIVE);
+                throw new AssertionError("Fourth job should be rejected at capacity 3");
+            } catch (RejectedExecutionException e) {
+                System.out.println("Rejected at capacity: " + e.getMessage());
+            }
+
+            gate.countDown();
+            for (int i = 0; i < futures.size(); i++) {
+                String name = futures.get(i).get(10, TimeUnit.SECONDS);
+                if (!name.equals("job" + i)) {
+                    throw new AssertionError("Expected job" + i + " but got " + name);
+                }
+            }
+            // Finished jobs free their queue slots
+            scheduler.submit(new CountingJob("after", 1, null), SimulationScheduler.Priority.INTERACTIVE).get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testPriorityAndFairness() throws Exception {
+        System.out.println("=== Scheduler Priority Test ===");
+
+        try (SimulationScheduler scheduler = new SimulationScheduler(1, 100)) {
+            // Hold the only thread while the competing jobs queue up behind it
+            CountDownLatch gate = new CountDownLatch(1);
+            CompletableFuture<String> blocker = scheduler.submit(new CountingJob("blocker", 1, gate),
+                    SimulationScheduler.Priority.BATCH);
+            List<String> finished = new CopyOnWriteArrayList<>();
+            List<CountingJob> batchJobs = new ArrayList<>();
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                CountingJob job = new CountingJob("batch" + i, 200, null);
+                batchJobs.add(job);
+                futures.add(scheduler.submit(job, SimulationScheduler.Priority.BATCH));
+            }
+            futures.add(scheduler.submit(new CountingJob("interactive", 20, null), SimulationScheduler.Priority.INTERACTIVE));
+            for (CompletableFuture<String> future : futures) {
+                future.thenAccept(finished::add);
+            }
+            AtomicInteger otherBatchTurns = new AtomicInteger();
+            futures.get(0).thenRun(() -> otherBatchTurns.set(batchJobs.get(1).done.get()));
+
+            gate.countDown();
+            blocker.get(10, TimeUnit.SECONDS);
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+            System.out.println("Completion order: " + finished);
+            if (!finished.get(0).equals("interactive")) {
+                throw new AssertionError("Interactive job should finish first, got " + finished);
+            }
+            // One thread means one active job per priority: later batch jobs wait their turn in order
+            if (!finished.get(1).equals("batch0") || otherBatchTurns.get() != 0) {
+                throw new AssertionError("Batch jobs should run in arrival order, got " + finished);
+            }
+        }
+        
+        // Active jobs take turns, so they progress together
+        try (SimulationScheduler scheduler = new SimulationScheduler(2, 100)) {
+            // Hold both threads until both jobs are queued, or the first can finish before the second arrives
+            CountDownLatch gate = new CountDownLatch(1);
+            CompletableFuture<String> blocker = scheduler.submit(new CountingJob("blocker", 2, gate),
+                    SimulationScheduler.Priority.INTERACTIVE);
+            CountingJob first = new CountingJob("first", 2000, null);
+            CountingJob second = new CountingJob("second", 2000, null);
+            AtomicInteger secondTurns = new AtomicInteger();
+            CompletableFuture<String> firstFuture = scheduler.submit(first, SimulationScheduler.Priority.BATCH)
+                    .whenComplete((name, error) -> secondTurns.set(second.done.get()));
+            CompletableFuture<String> secondFuture = scheduler.submit(second, SimulationScheduler.Priority.BATCH);
+            gate.countDown();
+            blocker.get(10, TimeUnit.SECONDS);
+            CompletableFuture.allOf(firstFuture, secondFuture).get(10, TimeUnit.SECONDS);
+            System.out.println("second had " + secondTurns.get() + " of 2000 turns when first finished");
+            if (secondTurns.get() < 1500) {
+                throw new AssertionError("Active jobs were not served in turn: " + secondTurns.get());
+            }
+        }
+
+        // Batch work still gets turns while interactive work keeps the thread busy
+        try (SimulationScheduler scheduler = new SimulationScheduler(1, 100)) {
+            CountingJob interactive = new CountingJob("interactive", 100000, null);
+            CountingJob batch = new CountingJob("batch", 100, null);
+            CompletableFuture<String> interactiveFuture = scheduler.submit(interactive, SimulationScheduler.Priority.INTERACTIVE);
+            scheduler.submit(batch, SimulationScheduler.Priority.BATCH).get(10, TimeUnit.SECONDS);
+            System.out.println("Batch finished after " + interactive.done.get() + " interactive turns");
+            if (interactiveFuture.isDone()) {
+                throw new AssertionError("Batch job was starved until interactive work finished");
+            }
+            interactiveFuture.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testEngineOnOwnScheduler() throws Exception {
+        System.out.println("=== Engine Scheduler Test ===");
+
+        SimulationScheduler scheduler = new SimulationScheduler(2, 8);
+        PLOSimulationEngine engine = new PLOSimulationEngine(new PokerHandCache(), SimulationOptions.DEFAULT, scheduler);
+        List<String> villainHands = Arrays.asList("AsAc5d5c");
+
+        // Concurrent requests of both priorities share the two threads
+        List<CompletableFuture<PLOSimulationEngine.SimulationResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            SimulationOptions options = SimulationOptions.DEFAULT.withPriority(
+                    i % 2 == 0 ? SimulationScheduler.Priority.INTERACTIVE : SimulationScheduler.Priority.BATCH);
+            futures.add(CompletableFuture.supplyAsync(() -> engine.simulateAdaptive("KsKh8d7c", villainHands,
+                    PLOSimulationEngine.SamplingStrategy.PLAIN, options)));
+        }
+        for (CompletableFuture<PLOSimulationEngine.SimulationResult> future : futures) {
+            PLOSimulationEngine.SimulationResult result = future.get(30, TimeUnit.SECONDS);
+            System.out.printf("KK vs AA: %.4f%% (SD: %.4f%%, Simulations: %d)%n",
+                    result.winRate * 100, result.standardDeviation * 100, result.iterations);
+            if (result.stopReason != PLOSimulationEngine.StopReason.CONVERGED || result.winRate < 0.2 || result.winRate > 0.4) {
+                throw new AssertionError("Unexpected result " + result.winRate + ", " + result.stopReason);
+            }
+        }
+
+        PLOSimulationEngine.EquityResult equity = engine.simulateEquity("KsKh8d7c", villainHands, 1);
+        System.out.println("Equity with a random third player: " + Arrays.toString(equity.equity));
+
+        scheduler.close();
+        try {
+            engine.simulateAdaptive("KsKh8d7c", villainHands);
+            throw new AssertionError("Closed scheduler should reject new simulations");
+        } catch (RejectedExecutionException e) {
+            System.out.println("Rejected after close: " + e.getMessage());
+        }
+    }
+}